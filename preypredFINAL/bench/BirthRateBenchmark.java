@@ -0,0 +1,84 @@
+import jade.core.AID;
+import jade.core.Profile;
+import jade.core.ProfileImpl;
+import jade.wrapper.AgentContainer;
+import java.util.ArrayList;
+
+// Births per second through the in-process spawn path of ScheduledAgentRuntime,
+// where newborns reuse the slots of dead animals, and optionally (--jade)
+// through createNewAgent on a local JADE container, the path every birth took
+// before. Each round spawns a generation and then kills it, so later rounds
+// only run on recycled slots.
+//
+// java -cp "out:jade.jar" BirthRateBenchmark [--births N] [--rounds R] [--jade]
+public class BirthRateBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int births = 20_000;
+        int rounds = 10;
+        boolean jade = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--births": births = Integer.parseInt(args[++i]); break;
+                case "--rounds": rounds = Integer.parseInt(args[++i]); break;
+                case "--jade": jade = true; break;
+                default: System.err.println("Unknown option: " + args[i]);
+            }
+        }
+
+        pooled(births, rounds);
+        if (jade) {
+            jade(births);
+        }
+    }
+
+    private static void pooled(int births, int rounds) throws InterruptedException {
+        Environment environment = new Environment();
+        environment.setVerbose(false);
+        ScheduledAgentRuntime runtime = new ScheduledAgentRuntime(environment, 1);
+        SimRandom random = new SimRandom(1);
+
+        System.out.println("In-process pooled births:");
+        for (int round = 1; round <= rounds; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < births; i++) {
+                runtime.spawnPrey(random.nextDouble() * environment.getWidth(),
+                        random.nextDouble() * environment.getHeight());
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("  round %2d: %,.0f births/s (slots reused so far: %d)%n",
+                    round, births / seconds, runtime.getReusedCount());
+
+            // Kill the generation; each task frees its slot on its next run
+            for (AID aid : new ArrayList<>(environment.getAllAgents().keySet())) {
+                environment.unregisterAgent(aid);
+            }
+            while (runtime.getLiveCount() > 0) {
+                Thread.sleep(5);
+            }
+        }
+        runtime.shutdown();
+    }
+
+    private static void jade(int births) throws Exception {
+        Profile profile = new ProfileImpl();
+        profile.setParameter(Profile.MAIN_HOST, "localhost");
+        profile.setParameter(Profile.GUI, "false");
+        AgentContainer container = jade.core.Runtime.instance().createMainContainer(profile);
+        Environment.getInstance().setVerbose(false);
+        SimRandom random = new SimRandom(1);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < births; i++) {
+            Object[] spawnArgs = new Object[]{
+                    random.nextDouble() * Environment.getInstance().getWidth(),
+                    random.nextDouble() * Environment.getInstance().getHeight()
+            };
+            container.createNewAgent("Prey_" + System.nanoTime(), "PreyAgent", spawnArgs).start();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("JADE createNewAgent births: %,.0f births/s%n", births / seconds);
+
+        container.kill();
+    }
+}
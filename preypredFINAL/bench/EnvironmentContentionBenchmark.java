@@ -0,0 +1,119 @@
+import jade.core.AID;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Throughput of the agent hot path (perceive, look for food, eat, move) on a
+// shared Environment as the number of agent threads grows. --global-lock wraps
+// every call in synchronized (environment) to reproduce the old single
+// monitor for comparison. Also checks that every food item is eaten once.
+//
+// java -cp "out:jade.jar" EnvironmentContentionBenchmark [--agents N] [--seconds S] [--global-lock]
+public class EnvironmentContentionBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int agents = 2000;
+        double seconds = 2.0;
+        boolean globalLock = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--agents": agents = Integer.parseInt(args[++i]); break;
+                case "--seconds": seconds = Double.parseDouble(args[++i]); break;
+                case "--global-lock": globalLock = true; break;
+                default: System.err.println("Unknown option: " + args[i]);
+            }
+        }
+
+        int maxThreads = Runtime.getRuntime().availableProcessors() * 2;
+        System.out.printf("%d agents, %.1f s per run, %s%n", agents, seconds,
+                globalLock ? "global lock" : "striped locks");
+        System.out.println("threads      ops/s   speedup  food eaten");
+
+        double baseline = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            double[] result = run(threads, agents, seconds, globalLock);
+            if (threads == 1) baseline = result[0];
+            System.out.printf("%7d %10.0f %8.2fx %11.0f%n", threads, result[0], result[0] / baseline, result[1]);
+        }
+    }
+
+    // Returns {operations per second, food items eaten}
+    private static double[] run(int threads, int agentCount, double seconds, boolean globalLock) throws Exception {
+        Environment environment = new Environment();
+        environment.setVerbose(false);
+        Random random = new Random(threads);
+
+        List<AgentInfo> agents = new ArrayList<>();
+        for (int i = 0; i < agentCount; i++) {
+            AID aid = new AID("Bench_" + i, AID.ISGUID);
+            environment.registerAgent(aid, i % 10 == 0 ? "PREDATOR" : "PREY",
+                    new Position(random.nextDouble() * 800, random.nextDouble() * 600), 100);
+        }
+        agents.addAll(environment.getAllAgents().values());
+        int foodSpawned = agentCount;
+        for (int i = 0; i < foodSpawned; i++) {
+            environment.spawnFood(new Position(random.nextDouble() * 800, random.nextDouble() * 600));
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong operations = new AtomicLong();
+        AtomicLong eaten = new AtomicLong();
+        CountDownLatch ready = new CountDownLatch(threads);
+        List<Thread> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            List<AgentInfo> own = agents.subList(t * agentCount / threads, (t + 1) * agentCount / threads);
+            Random local = new Random(t);
+            Thread worker = new Thread(() -> {
+                Position position = new Position(0, 0);
+                long ops = 0;
+                ready.countDown();
+                while (running.get()) {
+                    for (AgentInfo agent : own) {
+                        position.set(agent.getPosition().getX(), agent.getPosition().getY());
+                        if (globalLock) {
+                            synchronized (environment) {
+                                if (step(environment, agent, position, local)) eaten.incrementAndGet();
+                            }
+                        } else if (step(environment, agent, position, local)) {
+                            eaten.incrementAndGet();
+                        }
+                        ops++;
+                    }
+                }
+                operations.addAndGet(ops);
+            });
+            workers.add(worker);
+            worker.start();
+        }
+
+        ready.await();
+        long start = System.nanoTime();
+        Thread.sleep((long) (seconds * 1000));
+        running.set(false);
+        for (Thread worker : workers) worker.join();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        int remaining = environment.getFoodCount();
+        if (eaten.get() != foodSpawned - remaining) {
+            throw new IllegalStateException("food eaten " + eaten.get() + " times, " + (foodSpawned - remaining) + " removed");
+        }
+        return new double[]{operations.get() / elapsed, eaten.get()};
+    }
+
+    // One agent cycle against the environment; returns true if it ate
+    private static boolean step(Environment environment, AgentInfo agent, Position position, Random random) {
+        environment.getNearbyAgents(agent.getAID(), position, PredatorLogic.VISION_RANGE);
+        boolean ate = false;
+        Food food = environment.findNearestFood(position, PreyLogic.FOOD_SEARCH_RADIUS);
+        if (food != null && position.distance(food.getPosition()) <= PreyLogic.FOOD_EAT_DISTANCE) {
+            ate = environment.consumeFood(food);
+        }
+        position.randomStep(2.0, random.nextDouble() * 2 * Math.PI, environment.getWidth(), environment.getHeight());
+        environment.updatePosition(agent.getAID(), position);
+        return ate;
+    }
+}
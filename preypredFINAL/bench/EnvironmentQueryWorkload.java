@@ -0,0 +1,140 @@
+import jade.core.AID;
+import java.util.List;
+
+// The simulation side of jmh.EnvironmentQueryJmhBenchmark: one populated
+// Environment, fixed probe positions and pools of prey and predators to step
+public class EnvironmentQueryWorkload implements jmh.EnvironmentQueryJmhBenchmark.Workload {
+    private static final int PROBES = 1024;
+    private static final int STEPPERS = 256;
+
+    private double radius;
+    private Environment environment;
+    private Position[] probes;
+    private AID[] probeIds;
+    private int next = 0;
+
+    private SimulationContext context;
+    private AgentLogic[] preys;
+    private AgentLogic[] predators;
+    private int nextStepper = 0;
+    private long serial = 0;
+
+    public void setUp(int agents, int foods, double radius, boolean spatialIndex) {
+        this.radius = radius;
+        SimRandom random = new SimRandom(42);
+        environment = new Environment();
+        environment.setVerbose(false);
+        environment.setSpatialIndexEnabled(spatialIndex);
+
+        // Same mix as the GUI defaults: mostly prey
+        AID[] ids = new AID[agents];
+        for (int i = 0; i < agents; i++) {
+            ids[i] = new AID("Agent_" + i, AID.ISGUID);
+            String type = i % 10 == 0 ? "PREDATOR" : "PREY";
+            environment.registerAgent(ids[i], type, randomPosition(random), 100);
+        }
+        for (int i = 0; i < foods; i++) {
+            environment.spawnFood(randomPosition(random));
+        }
+
+        probes = new Position[PROBES];
+        probeIds = new AID[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probes[i] = randomPosition(random);
+            probeIds[i] = ids[random.nextInt(agents)];
+        }
+
+        context = new ReadOnlyContext(environment, random.split());
+        preys = new AgentLogic[STEPPERS];
+        predators = new AgentLogic[STEPPERS];
+        for (int i = 0; i < STEPPERS; i++) {
+            preys[i] = newPrey();
+            predators[i] = newPredator();
+        }
+    }
+
+    private Position randomPosition(SimRandom random) {
+        return new Position(random.nextDouble() * environment.getWidth(),
+                random.nextDouble() * environment.getHeight());
+    }
+
+    private int nextProbe() {
+        next = (next + 1) & (PROBES - 1);
+        return next;
+    }
+
+    public Object getNearbyAgents() {
+        int i = nextProbe();
+        return environment.getNearbyAgents(probeIds[i], probes[i], radius);
+    }
+
+    public Object findNearestFood() {
+        return environment.findNearestFood(probes[nextProbe()], radius);
+    }
+
+    public Object checkPreyCollision() {
+        return environment.checkPreyCollision(probes[nextProbe()]);
+    }
+
+    // One PreyAgent behaviour cycle, without the sleep and the environment write
+    public boolean preyStep() {
+        int i = nextStepper = (nextStepper + 1) % STEPPERS;
+        if (!preys[i].step(context)) {
+            preys[i] = newPrey();  // died of old age: keep the pool steady
+            return false;
+        }
+        return true;
+    }
+
+    public boolean predatorStep() {
+        int i = nextStepper = (nextStepper + 1) % STEPPERS;
+        if (!predators[i].step(context)) {
+            predators[i] = newPredator();
+            return false;
+        }
+        return true;
+    }
+
+    private AgentLogic newPrey() {
+        AID aid = new AID("StepPrey_" + (serial++), AID.ISGUID);
+        Position start = probes[(int) (serial % PROBES)];
+        return new PreyLogic(aid, new Position(start.getX(), start.getY()), SimConfig.DEFAULTS);
+    }
+
+    private AgentLogic newPredator() {
+        AID aid = new AID("StepPredator_" + (serial++), AID.ISGUID);
+        Position start = probes[(int) (serial % PROBES)];
+        return new PredatorLogic(aid, new Position(start.getX(), start.getY()), SimConfig.DEFAULTS);
+    }
+
+    // Queries the real environment but never changes it, so every iteration
+    // measures the same world: food and prey are "eaten" without being removed
+    private static class ReadOnlyContext implements SimulationContext {
+        private final Environment environment;
+        private final SimRandom random;
+
+        ReadOnlyContext(Environment environment, SimRandom random) {
+            this.environment = environment;
+            this.random = random;
+        }
+
+        public int getWidth() { return environment.getWidth(); }
+        public int getHeight() { return environment.getHeight(); }
+        public SimConfig getConfig() { return environment.getConfig(); }
+
+        public List<AgentInfo> getNearbyAgents(AID requester, Position position, double radius) {
+            return environment.getNearbyAgents(requester, position, radius);
+        }
+
+        public Food findNearestFood(Position position, double radius) {
+            return environment.findNearestFood(position, radius);
+        }
+
+        public boolean consumeFood(Food food) { return true; }
+        public boolean capturePrey(AID predator, AgentInfo prey) { return true; }
+        public void spawnPrey(double x, double y) {}
+        public void spawnPredator(double x, double y) {}
+        public double random() { return random.nextDouble(); }
+        public void log(String message) {}
+    }
+}
@@ -0,0 +1,80 @@
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+// Bytes allocated per movement cycle with the allocating Position API
+// (moveTo / randomMove / new Position) versus the in-place variants used by
+// PreyLogic and PredatorLogic. Also reports the batch engine's allocation per
+// tick for reference.
+//
+// javac -cp "src:jade.jar" -d out src/*.java bench/*.java
+// java -cp "out:jade.jar" PositionAllocationBenchmark [agents] [cycles]
+public class PositionAllocationBenchmark {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        int agents = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int cycles = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        Position[] positions = new Position[agents];
+        Random random = new Random(1);
+        for (int i = 0; i < agents; i++) {
+            positions[i] = new Position(random.nextDouble() * 800, random.nextDouble() * 600);
+        }
+
+        // Warm up both paths so JIT decisions (escape analysis included) settle
+        for (int i = 0; i < 20; i++) {
+            allocating(positions, random);
+            inPlace(positions, random);
+        }
+
+        long before = allocatedBytes();
+        long start = System.nanoTime();
+        for (int c = 0; c < cycles; c++) allocating(positions, random);
+        report("allocating", allocatedBytes() - before, System.nanoTime() - start, agents, cycles);
+
+        before = allocatedBytes();
+        start = System.nanoTime();
+        for (int c = 0; c < cycles; c++) inPlace(positions, random);
+        report("in-place", allocatedBytes() - before, System.nanoTime() - start, agents, cycles);
+
+        BatchSimulation simulation = new BatchSimulation(1);
+        simulation.populate(agents, agents / 20);
+        simulation.run(50);
+        before = allocatedBytes();
+        simulation.run(cycles);
+        System.out.printf("batch engine: %.0f bytes/tick (%d agents alive)%n",
+                (allocatedBytes() - before) / (double) cycles,
+                simulation.getPreyCount() + simulation.getPredatorCount());
+    }
+
+    // The pattern the behaviours used: every step returns a fresh Position
+    private static void allocating(Position[] positions, Random random) {
+        for (int i = 0; i < positions.length; i++) {
+            Position p = positions[i];
+            p = p.moveTo(random.nextDouble() - 0.5, random.nextDouble() - 0.5, 2.1);
+            p = p.randomMove(1.5, 800, 600);
+            p = new Position(Math.max(20, Math.min(780, p.getX())), Math.max(20, Math.min(580, p.getY())));
+            positions[i] = new Position(p.getX(), p.getY());  // Environment.updatePosition copy
+        }
+    }
+
+    private static void inPlace(Position[] positions, Random random) {
+        for (Position p : positions) {
+            p.moveTowards(random.nextDouble() - 0.5, random.nextDouble() - 0.5, 2.1);
+            p.randomStep(1.5, random.nextDouble() * 2 * Math.PI, 800, 600);
+            p.clamp(20, 20, 780, 580);
+        }
+    }
+
+    private static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static void report(String label, long bytes, long nanos, int agents, int cycles) {
+        double steps = (double) agents * cycles;
+        System.out.printf("%-10s %8.1f bytes/agent-step  %6.1f ns/agent-step  %.1f MB/s%n",
+                label, bytes / steps, nanos / steps, bytes / (nanos / 1e9) / 1e6);
+    }
+}
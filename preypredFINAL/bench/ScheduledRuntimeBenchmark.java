@@ -0,0 +1,54 @@
+import java.lang.management.ManagementFactory;
+
+// Starts N animals on ScheduledAgentRuntime and reports, after a few seconds,
+// how many are still live, how many steps ran, the JVM thread count and the
+// heap in use. With one JADE agent per animal the same N would need N
+// platform threads.
+//
+// java -cp "out:jade.jar" ScheduledRuntimeBenchmark [--agents N] [--seconds S] [--threads T]
+public class ScheduledRuntimeBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int agents = 100_000;
+        double seconds = 5.0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--agents": agents = Integer.parseInt(args[++i]); break;
+                case "--seconds": seconds = Double.parseDouble(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                default: System.err.println("Unknown option: " + args[i]);
+            }
+        }
+
+        Environment environment = new Environment();
+        environment.setVerbose(false);
+        ScheduledAgentRuntime runtime = new ScheduledAgentRuntime(environment, threads);
+        SimRandom random = new SimRandom(1);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < agents; i++) {
+            double x = random.nextDouble() * environment.getWidth();
+            double y = random.nextDouble() * environment.getHeight();
+            if (i % 10 == 0) {
+                runtime.spawnPredator(x, y);
+            } else {
+                runtime.spawnPrey(x, y);
+            }
+        }
+        System.out.printf("Started %d agents on %d threads in %.2f s%n", agents, threads,
+                (System.nanoTime() - start) / 1e9);
+
+        Thread.sleep((long) (seconds * 1000));
+        long steps = runtime.getStepCount();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        System.gc();
+        Runtime jvm = Runtime.getRuntime();
+        System.out.printf("live agents: %d, steps: %d (%.0f/s)%n", runtime.getLiveCount(), steps, steps / elapsed);
+        System.out.printf("JVM threads: %d, heap used: %d MB%n",
+                ManagementFactory.getThreadMXBean().getThreadCount(),
+                (jvm.totalMemory() - jvm.freeMemory()) >> 20);
+        runtime.shutdown();
+    }
+}
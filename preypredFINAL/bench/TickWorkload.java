@@ -0,0 +1,20 @@
+// The simulation side of jmh.TickJmhBenchmark: one BatchSimulation, rebuilt
+// per iteration
+public class TickWorkload implements jmh.TickJmhBenchmark.Workload {
+    private BatchSimulation simulation;
+
+    public void setUp(int agents, String mode) {
+        int threads = mode.equals("parallel") ? Runtime.getRuntime().availableProcessors() : 1;
+        simulation = new BatchSimulation(42, !mode.equals("serial"), threads, SimConfig.DEFAULTS);
+        simulation.populate(agents - agents / 10, agents / 10);
+    }
+
+    public long tick() {
+        simulation.tick();
+        return simulation.getTick();
+    }
+
+    public void tearDown() {
+        simulation.shutdown();
+    }
+}
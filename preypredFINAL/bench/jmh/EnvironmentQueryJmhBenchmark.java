@@ -0,0 +1,85 @@
+package jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// JMH benchmarks of the Environment queries every agent step makes, and of a
+// single prey / predator step, over agent count, food count and vision radius.
+// Each call probes the next of a fixed set of positions so results do not
+// hinge on one lucky spot. The work is done by the default-package
+// EnvironmentQueryWorkload (see TickJmhBenchmark for why). See the README for
+// how to build and run them.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnvironmentQueryJmhBenchmark {
+
+    public interface Workload {
+        void setUp(int agents, int foods, double radius, boolean spatialIndex);
+        Object getNearbyAgents();
+        Object findNearestFood();
+        Object checkPreyCollision();
+        boolean preyStep();
+        boolean predatorStep();
+    }
+
+    @Param({"100", "1000", "10000"})
+    public int agents;
+
+    @Param({"50", "500"})
+    public int foods;
+
+    @Param({"50", "100", "200"})
+    public double radius;
+
+    @Param({"true", "false"})
+    public boolean spatialIndex;
+
+    private Workload workload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        workload = (Workload) Class.forName("EnvironmentQueryWorkload").getDeclaredConstructor().newInstance();
+        workload.setUp(agents, foods, radius, spatialIndex);
+    }
+
+    @Benchmark
+    public Object getNearbyAgents() {
+        return workload.getNearbyAgents();
+    }
+
+    @Benchmark
+    public Object findNearestFood() {
+        return workload.findNearestFood();
+    }
+
+    @Benchmark
+    public Object checkPreyCollision() {
+        return workload.checkPreyCollision();
+    }
+
+    // One PreyAgent behaviour cycle, without the sleep and the environment write
+    @Benchmark
+    public boolean preyStep() {
+        return workload.preyStep();
+    }
+
+    @Benchmark
+    public boolean predatorStep() {
+        return workload.predatorStep();
+    }
+}
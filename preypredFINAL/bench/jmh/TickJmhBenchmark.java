@@ -0,0 +1,68 @@
+package jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// JMH benchmark of one full BatchSimulation tick. The world is rebuilt from
+// the same seed before every iteration so populations cannot drift towards
+// extinction (or explosion) over the measurement.
+//
+// JMH refuses benchmarks in the default package, and a named package cannot
+// see the simulation's classes, so the work is done by the default-package
+// TickWorkload through the Workload interface. It is loaded once per trial;
+// the call itself is a plain, monomorphic interface call.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickJmhBenchmark {
+
+    public interface Workload {
+        void setUp(int agents, String mode);
+        long tick();
+        void tearDown();
+    }
+
+    @Param({"300", "3000"})
+    public int agents;
+
+    // serial, buffered (double-buffered, one thread) or parallel (all cores)
+    @Param({"serial", "buffered", "parallel"})
+    public String mode;
+
+    private Workload workload;
+
+    @Setup(Level.Trial)
+    public void load() throws ReflectiveOperationException {
+        workload = (Workload) Class.forName("TickWorkload").getDeclaredConstructor().newInstance();
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        workload.setUp(agents, mode);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        workload.tearDown();
+    }
+
+    @Benchmark
+    public long tick() {
+        return workload.tick();
+    }
+}
@@ -0,0 +1,72 @@
+import jade.core.AID;
+import jade.core.Agent;
+import java.util.List;
+
+// SimulationContext for JADE agents: shared Environment singleton, births via
+// the agent container, and a random stream of the agent's own so agents never
+// contend on a shared generator.
+public class AgentContext implements SimulationContext {
+    private final Agent agent;
+    private final Environment environment;
+    private final SimRandom random = SimRandom.newStream();
+
+    public AgentContext(Agent agent, Environment environment) {
+        this.agent = agent;
+        this.environment = environment;
+    }
+
+    public int getWidth() { return environment.getWidth(); }
+    public int getHeight() { return environment.getHeight(); }
+    public SimConfig getConfig() { return environment.getConfig(); }
+
+    public List<AgentInfo> getNearbyAgents(AID requester, Position position, double radius) {
+        return environment.getNearbyAgents(requester, position, radius);
+    }
+
+    public Food findNearestFood(Position position, double radius) {
+        return environment.findNearestFood(position, radius);
+    }
+
+    public boolean consumeFood(Food food) {
+        return environment.consumeFood(food);
+    }
+
+    public boolean capturePrey(AID predator, AgentInfo prey) {
+        return environment.tryCapture(predator, prey.getAID());
+    }
+
+    public void spawnPrey(double x, double y) {
+        spawn("Prey_", "PreyAgent", x, y);
+    }
+
+    public void spawnPredator(double x, double y) {
+        spawn("Predator_", "PredatorAgent", x, y);
+    }
+
+    private void spawn(String prefix, String className, double x, double y) {
+        // In-process birth, no container call
+        if (ScheduledAgentRuntime.isPooledBirths()) {
+            if (className.equals("PreyAgent")) {
+                ScheduledAgentRuntime.getInstance().spawnPrey(x, y);
+            } else {
+                ScheduledAgentRuntime.getInstance().spawnPredator(x, y);
+            }
+            environment.recordBirth();
+            return;
+        }
+        try {
+            Object[] args = new Object[]{x, y};
+            String name = prefix + System.nanoTime();
+            agent.getContainerController().createNewAgent(name, className, args).start();
+            environment.recordBirth();
+        } catch (Exception e) {}
+    }
+
+    public double random() {
+        return random.nextDouble();
+    }
+
+    public void log(String message) {
+        System.out.println(message);
+    }
+}
@@ -1,11 +1,16 @@
 import jade.core.AID;
 import java.io.Serializable;
 
-public class AgentInfo implements Serializable {
+public class AgentInfo implements Serializable, SpatialGrid.Entry {
     private AID aid;
     private String type;
-    private Position position;
-    private int energy;
+    private volatile Position position;  // replaced on every move, never changed in place
+    private volatile int energy;
+    private volatile int gridCell = -1;
+    private volatile int gridSlot = -1;
+    private volatile int storeId = -1;
+    private volatile boolean alive = true;
+    private long sequence;  // registration order, set by the Environment
 
     public AgentInfo(AID aid, String type, Position position, int energy) {
         this.aid = aid;
@@ -22,6 +27,36 @@ public class AgentInfo implements Serializable {
     public void setPosition(Position position) { this.position = position; }
     public void setEnergy(int energy) { this.energy = energy; }
 
+    // Turns this object into a frozen copy of other (see WorldSnapshot). The
+    // snapshot owns its Positions and only rebuilds them between ticks, so
+    // they are reused in place.
+    void copyFrom(AgentInfo other) {
+        this.aid = other.aid;
+        this.type = other.type;
+        Position source = other.position;
+        this.position.set(source.getX(), source.getY());
+        this.energy = other.energy;
+        this.sequence = other.sequence;
+    }
+
+    public long getSequence() { return sequence; }
+    void setSequence(long sequence) { this.sequence = sequence; }
+
+    // Cleared by the Environment when the agent is captured or unregistered,
+    // so the owner learns it from its own AgentInfo instead of a map lookup
+    public boolean isAlive() { return alive; }
+    void markRemoved() { this.alive = false; }
+
+    // Dense id in the AgentStore, -1 when the store is disabled
+    public int getStoreId() { return storeId; }
+    public void setStoreId(int storeId) { this.storeId = storeId; }
+
+    // Spatial grid bookkeeping
+    public int getCell() { return gridCell; }
+    public void setCell(int cell) { this.gridCell = cell; }
+    public int getSlot() { return gridSlot; }
+    public void setSlot(int slot) { this.gridSlot = slot; }
+
     public boolean isPrey() { return "PREY".equals(type); }
     public boolean isPredator() { return "PREDATOR".equals(type); }
 
@@ -0,0 +1,61 @@
+import jade.core.AID;
+
+// State and rules shared by prey and predators, kept free of JADE so the same
+// perception-action cycle can run inside an agent behaviour or the batch engine.
+public abstract class AgentLogic {
+    protected AID aid;
+    protected final Position position;
+    protected int energy;
+    protected int reproductionCooldown = 0;
+    private boolean dead = false;
+    private long nextStepTime = 0;  // simulated ms, used by the batch engine
+    private SimRandom random;  // own stream, set by the batch engine
+
+    protected AgentLogic(AID aid, Position position, int energy) {
+        this.aid = aid;
+        this.position = position;
+        this.energy = energy;
+    }
+
+    // Turns a dead agent back into a newborn so its object can be reused.
+    // Subclasses reset their own state and pass their starting energy.
+    protected void reset(AID aid, double x, double y, int energy) {
+        this.aid = aid;
+        this.position.set(x, y);
+        this.energy = energy;
+        this.reproductionCooldown = 0;
+        this.dead = false;
+        this.nextStepTime = 0;
+    }
+
+    // One perception-action cycle. Returns false when the agent dies.
+    public abstract boolean step(SimulationContext ctx);
+
+    // Pause before the next cycle, in milliseconds
+    public abstract long getDelayMillis();
+
+    public abstract String getType();
+
+    public AID getAID() { return aid; }
+    public Position getPosition() { return position; }
+    public int getEnergy() { return energy; }
+    public abstract int getAge();
+    public int getReproductionCooldown() { return reproductionCooldown; }
+    public int getEatingCooldown() { return 0; }
+
+    public long getNextStepTime() { return nextStepTime; }
+    public void setNextStepTime(long nextStepTime) { this.nextStepTime = nextStepTime; }
+
+    public SimRandom getRandom() { return random; }
+    public void setRandom(SimRandom random) { this.random = random; }
+
+    // Loads the state saved in a checkpoint (see Checkpoint)
+    void restoreState(double x, double y, int energy, int reproductionCooldown) {
+        this.position.set(x, y);
+        this.energy = energy;
+        this.reproductionCooldown = reproductionCooldown;
+    }
+
+    public boolean isDead() { return dead; }
+    public void markDead() { this.dead = true; }
+}
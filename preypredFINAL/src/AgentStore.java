@@ -0,0 +1,279 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Structure-of-arrays mirror of the registered agents: one primitive column per
+// field, indexed by a dense int id. Removing an agent swaps the last one into
+// its slot, so ids stay packed in [0, size). Ids are also bucketed by grid
+// cell, so Environment's neighbour and collision queries and captureFrame read
+// the columns directly instead of walking AgentInfo objects.
+//
+// Adds, removals and moves take the write lock: they move ids between slots
+// or cells, and a reader must never see x from one move and y from another.
+// Vitals only touch the caller's own slot and are single ints, so they share
+// the read lock with the queries.
+public class AgentStore {
+    public static final byte PREY = 0;
+    public static final byte PREDATOR = 1;
+
+    private double[] x;
+    private double[] y;
+    private int[] energy;
+    private int[] age;
+    private int[] reproductionCooldown;
+    private int[] eatingCooldown;
+    private byte[] species;
+    private AgentInfo[] infos;
+    private int size = 0;
+
+    // Ids per grid cell, unordered; cellOf/slotOf locate an id in its bucket
+    private final double cellSize;
+    private final int cols;
+    private final int rows;
+    private final int[][] cellIds;
+    private final int[] cellCounts;
+    private int[] cellOf;
+    private int[] slotOf;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public AgentStore(int capacity, int width, int height, double cellSize) {
+        capacity = Math.max(16, capacity);
+        x = new double[capacity];
+        y = new double[capacity];
+        energy = new int[capacity];
+        age = new int[capacity];
+        reproductionCooldown = new int[capacity];
+        eatingCooldown = new int[capacity];
+        species = new byte[capacity];
+        infos = new AgentInfo[capacity];
+        cellOf = new int[capacity];
+        slotOf = new int[capacity];
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cellIds = new int[cols * rows][8];
+        this.cellCounts = new int[cols * rows];
+    }
+
+    public int size() { return size; }
+
+    private int column(double x) {
+        return Math.max(0, Math.min(cols - 1, (int) Math.floor(x / cellSize)));
+    }
+
+    private int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / cellSize)));
+    }
+
+    public int add(AgentInfo info) {
+        lock.writeLock().lock();
+        try {
+            if (size == x.length) {
+                grow();
+            }
+            int id = size++;
+            Position p = info.getPosition();
+            x[id] = p.getX();
+            y[id] = p.getY();
+            energy[id] = info.getEnergy();
+            age[id] = 0;
+            reproductionCooldown[id] = 0;
+            eatingCooldown[id] = 0;
+            species[id] = info.isPrey() ? PREY : PREDATOR;
+            infos[id] = info;
+            link(id, row(p.getY()) * cols + column(p.getX()));
+            info.setStoreId(id);
+            return id;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(AgentInfo info) {
+        lock.writeLock().lock();
+        try {
+            int id = info.getStoreId();
+            if (id >= 0) removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(int id) {
+        infos[id].setStoreId(-1);
+        unlink(id);
+        int last = --size;
+        if (id != last) {
+            x[id] = x[last];
+            y[id] = y[last];
+            energy[id] = energy[last];
+            age[id] = age[last];
+            reproductionCooldown[id] = reproductionCooldown[last];
+            eatingCooldown[id] = eatingCooldown[last];
+            species[id] = species[last];
+            infos[id] = infos[last];
+            cellOf[id] = cellOf[last];
+            slotOf[id] = slotOf[last];
+            cellIds[cellOf[id]][slotOf[id]] = id;
+            infos[id].setStoreId(id);
+        }
+        infos[last] = null;
+    }
+
+    private void link(int id, int cell) {
+        int[] ids = cellIds[cell];
+        int count = cellCounts[cell];
+        if (count == ids.length) {
+            ids = cellIds[cell] = Arrays.copyOf(ids, count * 2);
+        }
+        ids[count] = id;
+        cellCounts[cell] = count + 1;
+        cellOf[id] = cell;
+        slotOf[id] = count;
+    }
+
+    private void unlink(int id) {
+        int cell = cellOf[id];
+        int[] ids = cellIds[cell];
+        int last = --cellCounts[cell];
+        int moved = ids[last];
+        ids[slotOf[id]] = moved;
+        slotOf[moved] = slotOf[id];
+    }
+
+    public void setPosition(AgentInfo info, double newX, double newY) {
+        lock.writeLock().lock();
+        try {
+            int id = info.getStoreId();
+            if (id < 0) return;
+            x[id] = newX;
+            y[id] = newY;
+            int cell = row(newY) * cols + column(newX);
+            if (cell != cellOf[id]) {
+                unlink(id);
+                link(id, cell);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void setVitals(AgentInfo info, int energy, int age, int reproductionCooldown, int eatingCooldown) {
+        lock.readLock().lock();
+        try {
+            int id = info.getStoreId();
+            if (id < 0) return;
+            this.energy[id] = energy;
+            this.age[id] = age;
+            this.reproductionCooldown[id] = reproductionCooldown;
+            this.eatingCooldown[id] = eatingCooldown;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Collects the agents within radius of (qx, qy), skipping exclude
+    public void query(double qx, double qy, double radius, AgentInfo exclude, List<AgentInfo> out) {
+        lock.readLock().lock();
+        try {
+            int minCol = column(qx - radius), maxCol = column(qx + radius);
+            int minRow = row(qy - radius), maxRow = row(qy + radius);
+            double radiusSq = radius * radius;
+            for (int r = minRow; r <= maxRow; r++) {
+                for (int c = minCol; c <= maxCol; c++) {
+                    int cell = r * cols + c;
+                    int[] ids = cellIds[cell];
+                    for (int i = 0, n = cellCounts[cell]; i < n; i++) {
+                        int id = ids[i];
+                        double dx = x[id] - qx;
+                        double dy = y[id] - qy;
+                        if (dx * dx + dy * dy <= radiusSq && infos[id] != exclude) {
+                            out.add(infos[id]);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // First prey within radius of (qx, qy), or null
+    public AgentInfo findPrey(double qx, double qy, double radius) {
+        lock.readLock().lock();
+        try {
+            int minCol = column(qx - radius), maxCol = column(qx + radius);
+            int minRow = row(qy - radius), maxRow = row(qy + radius);
+            double radiusSq = radius * radius;
+            for (int r = minRow; r <= maxRow; r++) {
+                for (int c = minCol; c <= maxCol; c++) {
+                    int cell = r * cols + c;
+                    int[] ids = cellIds[cell];
+                    for (int i = 0, n = cellCounts[cell]; i < n; i++) {
+                        int id = ids[i];
+                        if (species[id] != PREY) continue;
+                        double dx = x[id] - qx;
+                        double dy = y[id] - qy;
+                        if (dx * dx + dy * dy <= radiusSq) {
+                            return infos[id];
+                        }
+                    }
+                }
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Bulk copy of the columns into caller-owned arrays; returns how many were written
+    public int copyPositions(double[] xs, double[] ys, byte[] kinds) {
+        lock.readLock().lock();
+        try {
+            int count = Math.min(size, Math.min(xs.length, Math.min(ys.length, kinds.length)));
+            System.arraycopy(x, 0, xs, 0, count);
+            System.arraycopy(y, 0, ys, 0, count);
+            System.arraycopy(species, 0, kinds, 0, count);
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Column reads by id, unlocked: ids move on removal, so only read them
+    // while nothing registers or dies, e.g. between batch ticks
+    public int getEnergy(int id) { return energy[id]; }
+    public int getAge(int id) { return age[id]; }
+    public int getReproductionCooldown(int id) { return reproductionCooldown[id]; }
+    public int getEatingCooldown(int id) { return eatingCooldown[id]; }
+    public byte getSpecies(int id) { return species[id]; }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < size; i++) {
+                infos[i].setStoreId(-1);
+                infos[i] = null;
+            }
+            Arrays.fill(cellCounts, 0);
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void grow() {
+        int capacity = x.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        energy = Arrays.copyOf(energy, capacity);
+        age = Arrays.copyOf(age, capacity);
+        reproductionCooldown = Arrays.copyOf(reproductionCooldown, capacity);
+        eatingCooldown = Arrays.copyOf(eatingCooldown, capacity);
+        species = Arrays.copyOf(species, capacity);
+        infos = Arrays.copyOf(infos, capacity);
+        cellOf = Arrays.copyOf(cellOf, capacity);
+        slotOf = Arrays.copyOf(slotOf, capacity);
+    }
+}
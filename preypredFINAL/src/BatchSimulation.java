@@ -0,0 +1,480 @@
+import jade.core.AID;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Headless, single-threaded engine running PreyLogic and PredatorLogic without
+// JADE agents, Swing or Thread.sleep. Each tick advances simulated time by
+// TICK_MILLIS; an agent acts once its own delay (the sleep its behaviour would
+// take) has elapsed, and food spawns on the visualizer's 100 ms clock, so the
+// ecology matches the GUI run. A run is fully determined by its seed: food and
+// placement draw from the run's SimRandom, and every agent gets its own
+// stream split from it when it is created.
+//
+// In double-buffered mode every agent of a tick perceives the world as it was
+// at the start of the tick (Environment.swapBuffers) instead of seeing the
+// agents stepped before it. Contested actions (eating food, capturing prey)
+// are only recorded during the step and resolved afterwards in a serial
+// merge, in agent order, so the step phase never touches shared state.
+// Since agents draw from their own random streams, the step phase can be
+// spread over a ForkJoinPool: agents are cut into fixed index chunks, each
+// with its own TickBuffer, and the buffers are merged in chunk order. The
+// result does not depend on the number of threads.
+public class BatchSimulation {
+    static final long TICK_MILLIS = 15;
+    static final long VISUALIZER_TICK_MILLIS = 100;
+    static final int STEP_CHUNK = 256;  // agents per fork-join leaf
+
+    private final Environment environment;
+    private final SimConfig config;
+    private final SimRandom random;
+    private final BatchContext context = new BatchContext();
+
+    private final List<AgentLogic> agents = new ArrayList<>();
+    private final Map<AID, AgentLogic> byAid = new HashMap<>();
+    private final List<AgentLogic> births = new ArrayList<>();
+    // Dead agents kept for reuse by newborns
+    private final ArrayDeque<PreyLogic> freePrey = new ArrayDeque<>();
+    private final ArrayDeque<PredatorLogic> freePredators = new ArrayDeque<>();
+    private final boolean doubleBuffered;
+    private final List<TickBuffer> buffers = new ArrayList<>();
+    private final ForkJoinPool pool;  // null when stepping on the caller thread
+
+    private long tick = 0;
+    private long nextFoodTime = 0;
+    private long nextSerial = 0;
+
+    public BatchSimulation(long seed) {
+        this(seed, false);
+    }
+
+    // With the default parameters
+    public BatchSimulation(long seed, boolean doubleBuffered) {
+        this(seed, doubleBuffered, 1, SimConfig.DEFAULTS);
+    }
+
+    // More than one thread implies double-buffered mode
+    public BatchSimulation(long seed, boolean doubleBuffered, int parallelism, SimConfig config) {
+        this.doubleBuffered = doubleBuffered || parallelism > 1;
+        this.config = config;
+        environment = new Environment();
+        environment.setConfig(config);
+        environment.setVerbose(false);
+        environment.setDoubleBuffered(this.doubleBuffered);
+        random = new SimRandom(seed);
+        pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    }
+
+    public boolean isDoubleBuffered() { return doubleBuffered; }
+    public int getParallelism() { return pool != null ? pool.getParallelism() : 1; }
+
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    public Environment getEnvironment() { return environment; }
+    public SimConfig getConfig() { return config; }
+    public long getTick() { return tick; }
+    public long getSimulatedMillis() { return tick * TICK_MILLIS; }
+    public int getPreyCount() { return environment.getPreyCount(); }
+    public int getPredatorCount() { return environment.getPredatorCount(); }
+    public int getFoodCount() { return environment.getFoodCount(); }
+    public SimulationStats getStats() { return environment.getStats(); }
+
+    // Checkpoint access; only meaningful between two ticks
+    List<AgentLogic> getAgents() { return agents; }
+    long getNextFoodTime() { return nextFoodTime; }
+    long getNextSerial() { return nextSerial; }
+    long getRandomState() { return random.getState(); }
+
+    void restoreClock(long tick, long nextFoodTime, long nextSerial, long randomState) {
+        this.tick = tick;
+        this.nextFoodTime = nextFoodTime;
+        this.nextSerial = nextSerial;
+        random.setState(randomState);
+    }
+
+    // Adds checkpointed agents as they were: names, state and random streams
+    // are already set, nothing is drawn from the run's stream. They are
+    // registered in their saved grid order with their saved sequence numbers
+    // and stepped in the given order.
+    void restoreAgents(List<AgentLogic> restored, int[] gridOrder, long[] sequences) {
+        for (int index : gridOrder) {
+            AgentLogic agent = restored.get(index);
+            AgentInfo info = environment.registerAgent(agent.getAID(), agent.getType(), agent.getPosition(), agent.getEnergy());
+            info.setSequence(sequences[index]);
+        }
+        for (AgentLogic agent : restored) {
+            agents.add(agent);
+            byAid.put(agent.getAID(), agent);
+        }
+    }
+
+    // Same placement as VisualizerAgent.spawnAgent
+    public void populate(int preyCount, int predatorCount) {
+        for (int i = 0; i < preyCount; i++) {
+            addPrey(random.nextDouble() * environment.getWidth(), random.nextDouble() * environment.getHeight());
+        }
+        for (int i = 0; i < predatorCount; i++) {
+            addPredator(random.nextDouble() * environment.getWidth(), random.nextDouble() * environment.getHeight());
+        }
+        flushBirths();
+    }
+
+    public void run(long ticks) {
+        for (long i = 0; i < ticks; i++) {
+            tick();
+        }
+    }
+
+    public void tick() {
+        long now = tick * TICK_MILLIS;
+        tick++;
+
+        if (now >= nextFoodTime) {
+            environment.spawnRandomFood(config.getFoodPerSpawn(), random);
+            nextFoodTime += VISUALIZER_TICK_MILLIS * config.getFoodSpawnRate();
+        }
+
+        if (doubleBuffered) {
+            bufferedTick(now);
+            return;
+        }
+
+        // Agents born during this tick only join at the end of it
+        int count = agents.size();
+        for (int i = 0; i < count; i++) {
+            AgentLogic agent = agents.get(i);
+            if (agent.isDead() || agent.getNextStepTime() > now) continue;
+
+            context.current = agent;
+            if (!agent.step(context)) {
+                kill(agent);
+                continue;
+            }
+            environment.updateAgent(agent);
+            agent.setNextStepTime(now + agent.getDelayMillis());
+        }
+
+        flushBirths();
+        compact();
+    }
+
+    private void bufferedTick(long now) {
+        environment.swapBuffers();
+
+        // Step phase: reads the front snapshot, writes only the agent's own
+        // state and its chunk's buffer
+        int count = agents.size();
+        int chunks = (count + STEP_CHUNK - 1) / STEP_CHUNK;
+        while (buffers.size() < chunks) {
+            buffers.add(new TickBuffer());
+        }
+        if (pool != null && chunks > 1) {
+            pool.invoke(new StepTask(0, chunks, count, now));
+        } else {
+            for (int c = 0; c < chunks; c++) {
+                stepChunk(c, count, now);
+            }
+        }
+
+        merge(chunks, now);
+        flushBirths();
+        compact();
+    }
+
+    private void stepChunk(int chunk, int count, long now) {
+        TickBuffer buffer = buffers.get(chunk);
+        int end = Math.min(count, (chunk + 1) * STEP_CHUNK);
+        for (int i = chunk * STEP_CHUNK; i < end; i++) {
+            AgentLogic agent = agents.get(i);
+            if (agent.isDead() || agent.getNextStepTime() > now) continue;
+
+            buffer.current = agent;
+            if (!agent.step(buffer.context)) {
+                buffer.deaths.add(agent);
+            } else {
+                environment.updateAgent(agent);
+                buffer.stepped.add(agent);
+            }
+        }
+        buffer.current = null;
+    }
+
+    // Splits a range of chunks in halves until a single chunk is left
+    private class StepTask extends RecursiveAction {
+        private final int from, to, count;
+        private final long now;
+
+        StepTask(int from, int to, int count, long now) {
+            this.from = from;
+            this.to = to;
+            this.count = count;
+            this.now = now;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                stepChunk(from, count, now);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new StepTask(from, mid, count, now), new StepTask(mid, to, count, now));
+        }
+    }
+
+    // Serial merge phase: applies what the step phase recorded, chunk by
+    // chunk, which is agent order
+    private void merge(int chunks, long now) {
+        for (int c = 0; c < chunks; c++) {
+            for (AgentLogic agent : buffers.get(c).deaths) {
+                kill(agent);
+            }
+        }
+
+        for (int c = 0; c < chunks; c++) {
+            TickBuffer buffer = buffers.get(c);
+            for (int i = 0; i < buffer.claimants.size(); i++) {
+                AgentLogic agent = buffer.claimants.get(i);
+                if (agent.isDead()) continue;  // captured earlier in this merge
+
+                Food food = buffer.foods.get(i);
+                if (food != null) {
+                    if (environment.tryConsume(food.getId()) != null) {
+                        ((PreyLogic) agent).feed(context, food.getEnergyValue());
+                        environment.updateAgent(agent);
+                    }
+                } else if (environment.tryCapture(agent.getAID(), buffer.preys.get(i).getAID())) {
+                    AgentLogic victim = byAid.remove(buffer.preys.get(i).getAID());
+                    if (victim != null) {
+                        victim.markDead();
+                    }
+                    ((PredatorLogic) agent).onCapture(context);
+                    environment.updateAgent(agent);
+                }
+            }
+        }
+
+        for (int c = 0; c < chunks; c++) {
+            TickBuffer buffer = buffers.get(c);
+            // Delays depend on the merge result (a predator that ate rests longer)
+            for (AgentLogic agent : buffer.stepped) {
+                if (!agent.isDead()) {
+                    agent.setNextStepTime(now + agent.getDelayMillis());
+                }
+            }
+            // Children are created here so names and random streams follow agent order
+            for (int i = 0; i < buffer.spawnCount; i++) {
+                environment.recordBirth();
+                if (buffer.spawnPrey[i]) {
+                    addPrey(buffer.spawnX[i], buffer.spawnY[i]);
+                } else {
+                    addPredator(buffer.spawnX[i], buffer.spawnY[i]);
+                }
+            }
+            buffer.clear();
+        }
+    }
+
+    private void addPrey(double x, double y) {
+        births.add(newPrey(x, y));
+    }
+
+    private void addPredator(double x, double y) {
+        births.add(newPredator(x, y));
+    }
+
+    private AgentLogic newPrey(double x, double y) {
+        AID aid = new AID("Prey_" + (nextSerial++), AID.ISGUID);
+        PreyLogic prey = freePrey.poll();
+        if (prey != null) {
+            prey.reset(aid, x, y, config);
+        } else {
+            prey = new PreyLogic(aid, new Position(x, y), config);
+        }
+        return withRandom(prey);
+    }
+
+    private AgentLogic newPredator(double x, double y) {
+        AID aid = new AID("Predator_" + (nextSerial++), AID.ISGUID);
+        Position position = PredatorLogic.spawnPosition(x, y, environment.getWidth(), environment.getHeight());
+        PredatorLogic predator = freePredators.poll();
+        if (predator != null) {
+            predator.reset(aid, position.getX(), position.getY(), config);
+        } else {
+            predator = new PredatorLogic(aid, position, config);
+        }
+        return withRandom(predator);
+    }
+
+    // Drops dead agents from the list, keeping their objects for newborns
+    private void compact() {
+        int live = 0;
+        for (int i = 0; i < agents.size(); i++) {
+            AgentLogic agent = agents.get(i);
+            if (!agent.isDead()) {
+                agents.set(live++, agent);
+            } else if (agent instanceof PreyLogic) {
+                freePrey.push((PreyLogic) agent);
+            } else {
+                freePredators.push((PredatorLogic) agent);
+            }
+        }
+        agents.subList(live, agents.size()).clear();
+    }
+
+    private AgentLogic withRandom(AgentLogic agent) {
+        agent.setRandom(random.split());
+        return agent;
+    }
+
+    private void flushBirths() {
+        for (AgentLogic agent : births) {
+            environment.registerAgent(agent.getAID(), agent.getType(), agent.getPosition(), agent.getEnergy());
+            agent.setNextStepTime(tick * TICK_MILLIS);
+            agents.add(agent);
+            byAid.put(agent.getAID(), agent);
+        }
+        births.clear();
+    }
+
+    private void kill(AgentLogic agent) {
+        agent.markDead();
+        byAid.remove(agent.getAID());
+        environment.unregisterAgent(agent.getAID());
+    }
+
+    private class BatchContext implements SimulationContext {
+        AgentLogic current;
+
+        public int getWidth() { return environment.getWidth(); }
+        public int getHeight() { return environment.getHeight(); }
+        public SimConfig getConfig() { return config; }
+
+        public List<AgentInfo> getNearbyAgents(AID requester, Position position, double radius) {
+            return environment.getNearbyAgents(requester, position, radius);
+        }
+
+        public Food findNearestFood(Position position, double radius) {
+            return environment.findNearestFood(position, radius);
+        }
+
+        public boolean consumeFood(Food food) {
+            return environment.consumeFood(food);
+        }
+
+        public boolean capturePrey(AID predator, AgentInfo prey) {
+            if (!environment.tryCapture(predator, prey.getAID())) {
+                return false;
+            }
+            AgentLogic victim = byAid.remove(prey.getAID());
+            if (victim != null) {
+                victim.markDead();
+            }
+            return true;
+        }
+
+        public void spawnPrey(double x, double y) {
+            environment.recordBirth();
+            addPrey(x, y);
+        }
+
+        public void spawnPredator(double x, double y) {
+            environment.recordBirth();
+            addPredator(x, y);
+        }
+
+        public double random() { return current.getRandom().nextDouble(); }
+
+        public void log(String message) {}
+    }
+
+    // Everything one chunk of the step phase produced, waiting for the merge
+    private class TickBuffer {
+        final SimulationContext context = new BufferedContext(this);
+        final List<AgentLogic> stepped = new ArrayList<>();
+        final List<AgentLogic> deaths = new ArrayList<>();
+        // Claims, one entry per index: either a food or a prey is set
+        final List<AgentLogic> claimants = new ArrayList<>();
+        final List<Food> foods = new ArrayList<>();
+        final List<AgentInfo> preys = new ArrayList<>();
+        // Requested births, in primitive columns grown on demand
+        boolean[] spawnPrey = new boolean[16];
+        double[] spawnX = new double[16];
+        double[] spawnY = new double[16];
+        int spawnCount;
+        AgentLogic current;
+
+        void claim(Food food, AgentInfo prey) {
+            claimants.add(current);
+            foods.add(food);
+            preys.add(prey);
+        }
+
+        void spawn(boolean prey, double x, double y) {
+            if (spawnCount == spawnX.length) {
+                spawnPrey = Arrays.copyOf(spawnPrey, 2 * spawnCount);
+                spawnX = Arrays.copyOf(spawnX, 2 * spawnCount);
+                spawnY = Arrays.copyOf(spawnY, 2 * spawnCount);
+            }
+            spawnPrey[spawnCount] = prey;
+            spawnX[spawnCount] = x;
+            spawnY[spawnCount] = y;
+            spawnCount++;
+        }
+
+        void clear() {
+            stepped.clear();
+            deaths.clear();
+            claimants.clear();
+            foods.clear();
+            preys.clear();
+            spawnCount = 0;
+        }
+    }
+
+    // Context of the step phase: contested actions become claims and report
+    // failure, the merge calls feed/onCapture for the ones that win
+    private class BufferedContext implements SimulationContext {
+        private final TickBuffer buffer;
+
+        BufferedContext(TickBuffer buffer) { this.buffer = buffer; }
+
+        public int getWidth() { return environment.getWidth(); }
+        public int getHeight() { return environment.getHeight(); }
+        public SimConfig getConfig() { return config; }
+
+        public List<AgentInfo> getNearbyAgents(AID requester, Position position, double radius) {
+            return environment.getNearbyAgents(requester, position, radius);
+        }
+
+        public Food findNearestFood(Position position, double radius) {
+            return environment.findNearestFood(position, radius);
+        }
+
+        public boolean consumeFood(Food food) {
+            buffer.claim(food, null);
+            return false;
+        }
+
+        public boolean capturePrey(AID predator, AgentInfo prey) {
+            buffer.claim(null, prey);
+            return false;
+        }
+
+        public void spawnPrey(double x, double y) { buffer.spawn(true, x, y); }
+        public void spawnPredator(double x, double y) { buffer.spawn(false, x, y); }
+
+        public double random() { return buffer.current.getRandom().nextDouble(); }
+
+        public void log(String message) {}
+    }
+}
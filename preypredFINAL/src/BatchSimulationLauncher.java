@@ -0,0 +1,312 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+
+// Runs the simulation with BatchSimulation (headless unless --gui) and reports throughput.
+// Usage: java BatchSimulationLauncher [--prey N] [--predators N] [--ticks N] [--seed S] [--report N]
+//                                     [--double-buffered] [--threads N] [--scaling]
+//                                     [--gui [--fps N] [--tick-millis M]] [--record FILE]
+//                                     [--checkpoint FILE [--checkpoint-every N]] [--resume FILE]
+//                                     [--replay FILE [--keyframe-every N]] [--param NAME=VALUE ...]
+//
+// --param overrides one parameter of the run (NAME is one of
+// SimConfig.PARAMETERS); the others keep SimConfig.DEFAULTS. A resumed run
+// keeps the parameters saved in its checkpoint.
+//
+// --scaling runs the same seed with 1, 2, 4, ... up to --threads workers (all
+// cores by default) and prints a strong-scaling table; every run must end in
+// the same state since the parallel engine does not depend on thread count.
+//
+// --gui opens a window that samples the world at --fps frames per second
+// while the batch keeps ticking on the main thread, paced to --tick-millis
+// per tick (the simulated tick length by default, 0 for unlimited speed).
+//
+// --record streams every tick's statistics to FILE in the StatsRecorder
+// format; StatsCsvExporter converts it to CSV.
+//
+// --checkpoint saves the whole run to FILE every N ticks (10000 by default)
+// and at the end; --resume continues a saved run up to tick --ticks, with
+// the same output it would have had without the interruption.
+//
+// --replay writes a replay log of every tick, with all positions in full
+// every N ticks (100 by default); ReplayViewer plays it back.
+public class BatchSimulationLauncher {
+    // Founders of a batch run, shared with ParameterSweep
+    static final int DEFAULT_PREY = 15;
+    static final int DEFAULT_PREDATORS = 8;
+
+    public static void main(String[] args) {
+        int prey = DEFAULT_PREY;
+        int predators = DEFAULT_PREDATORS;
+        long ticks = 100_000;
+        long seed = 42;
+        long reportEvery = 10_000;
+        boolean doubleBuffered = false;
+        int threads = 1;
+        boolean scaling = false;
+        boolean gui = false;
+        int fps = FrameSampler.fpsFromProperty();
+        long tickMillis = BatchSimulation.TICK_MILLIS;
+        String recordFile = null;
+        String checkpointFile = null;
+        long checkpointEvery = 10_000;
+        String resumeFile = null;
+        String replayFile = null;
+        int keyframeEvery = ReplayRecorder.DEFAULT_KEYFRAME_EVERY;
+        SimConfig.Builder params = SimConfig.DEFAULTS.toBuilder();
+        boolean customParams = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--prey": prey = Integer.parseInt(args[++i]); break;
+                case "--predators": predators = Integer.parseInt(args[++i]); break;
+                case "--ticks": ticks = Long.parseLong(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--report": reportEvery = Long.parseLong(args[++i]); break;
+                case "--double-buffered": doubleBuffered = true; break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--scaling": scaling = true; break;
+                case "--gui": gui = true; break;
+                case "--fps": fps = Integer.parseInt(args[++i]); break;
+                case "--tick-millis": tickMillis = Long.parseLong(args[++i]); break;
+                case "--record": recordFile = args[++i]; break;
+                case "--checkpoint": checkpointFile = args[++i]; break;
+                case "--checkpoint-every": checkpointEvery = Long.parseLong(args[++i]); break;
+                case "--resume": resumeFile = args[++i]; break;
+                case "--replay": replayFile = args[++i]; break;
+                case "--keyframe-every": keyframeEvery = Integer.parseInt(args[++i]); break;
+                case "--param": {
+                    String spec = args[++i];
+                    int eq = spec.indexOf('=');
+                    try {
+                        if (eq < 0) throw new IllegalArgumentException("NOM=VALEUR attendu");
+                        params.set(spec.substring(0, eq), Double.parseDouble(spec.substring(eq + 1)));
+                    } catch (IllegalArgumentException e) {
+                        System.err.println("--param " + spec + ": " + e.getMessage());
+                        return;
+                    }
+                    customParams = true;
+                    break;
+                }
+                default: System.err.println("Option inconnue: " + args[i]);
+            }
+        }
+
+        SimConfig config;
+        try {
+            config = params.build();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return;
+        }
+
+        if (reportEvery <= 0) {
+            System.err.println("--report doit etre positif: " + reportEvery);
+            return;
+        }
+        if (checkpointEvery <= 0) {
+            System.err.println("--checkpoint-every doit etre positif: " + checkpointEvery);
+            return;
+        }
+
+        System.out.println("=== Simulation batch Proie-Predateur ===");
+        System.out.printf("Proies: %d, Predateurs: %d, Ticks: %d, Seed: %d%n", prey, predators, ticks, seed);
+        if (customParams) System.out.println("Parametres: " + config);
+
+        if (scaling) {
+            int maxThreads = threads > 1 ? threads : Runtime.getRuntime().availableProcessors();
+            runScaling(config, prey, predators, ticks, seed, maxThreads);
+            return;
+        }
+
+        BatchSimulation simulation;
+        if (resumeFile != null) {
+            try {
+                long loadStart = System.nanoTime();
+                simulation = Checkpoint.load(Paths.get(resumeFile), threads);
+                System.out.printf("Reprise de %s au tick %d (%.1f ms)%n", resumeFile, simulation.getTick(),
+                        (System.nanoTime() - loadStart) / 1e6);
+            } catch (IOException e) {
+                System.err.println("Impossible de reprendre " + resumeFile + ": " + e.getMessage());
+                return;
+            }
+        } else {
+            simulation = new BatchSimulation(seed, doubleBuffered, threads, config);
+        }
+        if (simulation.isDoubleBuffered()) {
+            System.out.println("Mode double tampon: perception sur l'etat du debut de tick, "
+                    + simulation.getParallelism() + " thread(s)");
+        }
+        if (resumeFile == null) {
+            simulation.populate(prey, predators);
+        }
+
+        StatsRecorder recorder = null;
+        if (recordFile != null) {
+            try {
+                recorder = new StatsRecorder(Paths.get(recordFile));
+            } catch (IOException e) {
+                System.err.println("Impossible d'ouvrir " + recordFile + ": " + e.getMessage());
+                return;
+            }
+        }
+
+        ReplayRecorder replay = null;
+        if (replayFile != null) {
+            try {
+                replay = new ReplayRecorder(Paths.get(replayFile), simulation.getEnvironment(), keyframeEvery);
+                replay.frame(simulation.getTick());
+            } catch (IOException e) {
+                System.err.println("Impossible d'ouvrir " + replayFile + ": " + e.getMessage());
+                return;
+            }
+        }
+
+        FrameSampler sampler = null;
+        if (gui) {
+            sampler = openWindow(simulation, fps);
+            System.out.println("Fenetre: " + fps + " images/s, "
+                    + (tickMillis > 0 ? tickMillis + " ms par tick" : "vitesse illimitee"));
+        }
+
+        long firstTick = simulation.getTick();
+        long start = System.nanoTime();
+        long pacing = start;
+        for (long t = firstTick + 1; t <= ticks; t++) {
+            simulation.tick();
+            if (recorder != null) recorder.record(t, simulation.getStats());
+            if (replay != null) {
+                try {
+                    replay.frame(t);
+                } catch (IOException e) {
+                    System.err.println("Erreur d'ecriture de " + replayFile + ", relecture arretee: " + e.getMessage());
+                    closeReplay(replay, replayFile);
+                    replay = null;
+                }
+            }
+            if (checkpointFile != null && t % checkpointEvery == 0) {
+                saveCheckpoint(simulation, checkpointFile);
+            }
+            if (gui && tickMillis > 0) {
+                pacing += tickMillis * 1_000_000;
+                sleepUntil(pacing);
+            }
+            if (t % reportEvery == 0) {
+                System.out.printf("tick %d: proies=%d predateurs=%d nourriture=%d%n", t,
+                        simulation.getPreyCount(), simulation.getPredatorCount(), simulation.getFoodCount());
+            }
+            if (simulation.getPreyCount() == 0 && simulation.getPredatorCount() == 0) {
+                System.out.println("Extinction au tick " + t);
+                break;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        simulation.shutdown();
+        if (checkpointFile != null) {
+            saveCheckpoint(simulation, checkpointFile);
+            System.out.println("Point de reprise: " + checkpointFile + " (tick " + simulation.getTick() + ")");
+        }
+        if (recorder != null) {
+            try {
+                recorder.close();
+                System.out.println(recorder.getRecordCount() + " ticks enregistres dans " + recordFile
+                        + (recorder.getExtraBuffers() > 0 ? " (" + recorder.getExtraBuffers() + " tampons supplementaires)" : ""));
+            } catch (IOException e) {
+                System.err.println("Erreur d'ecriture de " + recordFile + ": " + e.getMessage());
+            }
+        }
+        if (replay != null && closeReplay(replay, replayFile)) {
+            System.out.printf("%d images de relecture dans %s (%.1f Mo)%n", replay.getFrameCount(), replayFile,
+                    replay.getByteCount() / 1e6);
+        }
+        if (sampler != null) {
+            sampler.stop();
+            System.out.println("Images affichees=" + sampler.getPublishedFrames()
+                    + " sautees=" + sampler.getSkippedFrames());
+        }
+
+        SimulationStats stats = simulation.getStats();
+        System.out.printf("naissances=%d morts=%d captures=%d nourriture mangee=%d%n",
+                stats.getBirths(), stats.getDeaths(), stats.getCaptures(), stats.getFoodEaten());
+        System.out.printf("%d ticks en %.2f s -> %.0f ticks/s (temps simule: %.1f s)%n",
+                simulation.getTick() - firstTick, seconds, (simulation.getTick() - firstTick) / seconds,
+                simulation.getSimulatedMillis() / 1000.0);
+    }
+
+    private static void runScaling(SimConfig config, int prey, int predators, long ticks, long seed, int maxThreads) {
+        System.out.println("Scalabilite forte (taille fixe), jusqu'a " + maxThreads + " threads");
+        System.out.printf("%8s %10s %12s %9s %10s  %s%n",
+                "threads", "temps (s)", "ticks/s", "speedup", "efficacite", "etat final");
+
+        // Untimed warm-up so the first row is not paying for JIT compilation
+        BatchSimulation warmup = new BatchSimulation(seed, true, maxThreads, config);
+        warmup.populate(prey, predators);
+        warmup.run(Math.min(ticks, 50));
+        warmup.shutdown();
+
+        double baseline = 0;
+        String reference = null;
+        for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+            BatchSimulation simulation = new BatchSimulation(seed, true, threads, config);
+            simulation.populate(prey, predators);
+
+            long start = System.nanoTime();
+            simulation.run(ticks);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            simulation.shutdown();
+
+            String state = "proies=" + simulation.getPreyCount() + " predateurs=" + simulation.getPredatorCount()
+                    + " nourriture=" + simulation.getFoodCount();
+            if (threads == 1) {
+                baseline = seconds;
+                reference = state;
+            }
+            double speedup = baseline / seconds;
+            System.out.printf("%8d %10.2f %12.0f %9.2f %9.0f%%  %s%s%n",
+                    threads, seconds, ticks / seconds, speedup, 100 * speedup / threads,
+                    state, state.equals(reference) ? "" : "  <- DIFFERENT");
+        }
+    }
+
+    private static void saveCheckpoint(BatchSimulation simulation, String file) {
+        try {
+            Checkpoint.save(simulation, Paths.get(file));
+        } catch (IOException e) {
+            System.err.println("Impossible d'ecrire le point de reprise " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static boolean closeReplay(ReplayRecorder replay, String file) {
+        try {
+            replay.close();
+            return true;
+        } catch (IOException e) {
+            System.err.println("Erreur d'ecriture de " + file + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Swing is only loaded here, when --gui asks for a window
+    private static FrameSampler openWindow(BatchSimulation simulation, int fps) {
+        Environment environment = simulation.getEnvironment();
+        FrameView view = FrameView.openWindow("Simulation batch Proie-Predateur");
+        FrameSampler sampler = new FrameSampler(environment::captureFrame, view, null);
+        sampler.start(fps);
+        return sampler;
+    }
+
+    private static void sleepUntil(long deadline) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) return;
+        try {
+            Thread.sleep(remaining / 1_000_000, (int) (remaining % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 1, 2, 4, ... and always the maximum itself
+    private static int nextThreadCount(int threads, int maxThreads) {
+        if (threads == maxThreads) return maxThreads + 1;
+        return Math.min(threads * 2, maxThreads);
+    }
+}
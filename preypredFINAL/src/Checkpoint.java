@@ -0,0 +1,220 @@
+import jade.core.AID;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Saves a BatchSimulation between two ticks into a compact memory-mapped file
+// and restores it. The file holds everything the next tick depends on: the
+// clock, the run's random state, its SimConfig, every agent (species,
+// name serial, position, energy, age, cooldowns, next step time and its own
+// random state, registration sequence and rank in the spatial grid) and every
+// food item in grid order. Ties between equally distant neighbours are
+// decided by those orders, so a restored run continues exactly as the
+// original would have.
+//
+// Layout, little-endian: HEADER_SIZE bytes of header, then AGENT_SIZE bytes
+// per agent in engine order, then FOOD_SIZE bytes per food item.
+public class Checkpoint {
+    static final int MAGIC = 0x4C564350;  // "LVCP"
+    static final int VERSION = 1;
+    static final int PARAMS_SIZE = 12 * 4 + 2 * 8;
+    static final int HEADER_SIZE = 5 * 4 + 10 * 8 + PARAMS_SIZE + 2 * 4;
+    static final int AGENT_SIZE = 2 + 8 + 2 * 8 + 4 * 4 + 3 * 8 + 4;
+    static final int FOOD_SIZE = 8 + 2 * 8 + 4;
+
+    private static final byte PREY = 0;
+    private static final byte PREDATOR = 1;
+
+    // Written to a temporary file first and moved in place, so a crash while
+    // saving leaves the previous checkpoint intact
+    public static void save(BatchSimulation simulation, Path file) throws IOException {
+        Environment environment = simulation.getEnvironment();
+        List<AgentLogic> agents = new ArrayList<>();
+        for (AgentLogic agent : simulation.getAgents()) {
+            if (!agent.isDead()) agents.add(agent);
+        }
+        Map<AID, AgentInfo> infos = environment.getAllAgents();
+        Map<AID, Integer> gridRank = new HashMap<>();
+        for (AgentInfo info : environment.getAgentsInGridOrder()) {
+            gridRank.put(info.getAID(), gridRank.size());
+        }
+        List<Food> foods = environment.getAllFoods();
+        SimulationStats stats = environment.getStats();
+
+        long size = HEADER_SIZE + (long) agents.size() * AGENT_SIZE + (long) foods.size() * FOOD_SIZE;
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            out.order(ByteOrder.LITTLE_ENDIAN);
+
+            out.putInt(MAGIC).putInt(VERSION)
+                    .putInt(environment.getWidth()).putInt(environment.getHeight())
+                    .putInt(simulation.isDoubleBuffered() ? 1 : 0);
+            out.putLong(simulation.getTick()).putLong(simulation.getNextFoodTime())
+                    .putLong(simulation.getNextSerial()).putLong(simulation.getRandomState());
+            out.putLong(stats.getBirths()).putLong(stats.getDeaths()).putLong(stats.getCaptures())
+                    .putLong(stats.getFoodEaten()).putLong(environment.getNextFoodId())
+                    .putLong(environment.getNextSequence());
+            saveParams(out, simulation.getConfig());
+            out.putInt(agents.size()).putInt(foods.size());
+
+            for (AgentLogic agent : agents) {
+                boolean prey = agent instanceof PreyLogic;
+                boolean justAte = !prey && ((PredatorLogic) agent).hasJustEaten();
+                String name = agent.getAID().getName();
+                out.put(prey ? PREY : PREDATOR).put((byte) (justAte ? 1 : 0))
+                        .putLong(Long.parseLong(name.substring(name.lastIndexOf('_') + 1)))
+                        .putDouble(agent.getPosition().getX()).putDouble(agent.getPosition().getY())
+                        .putInt(agent.getEnergy()).putInt(agent.getReproductionCooldown())
+                        .putInt(agent.getAge()).putInt(agent.getEatingCooldown())
+                        .putLong(agent.getNextStepTime()).putLong(agent.getRandom().getState())
+                        .putLong(infos.get(agent.getAID()).getSequence())
+                        .putInt(gridRank.get(agent.getAID()));
+            }
+            for (Food food : foods) {
+                out.putLong(food.getId())
+                        .putDouble(food.getPosition().getX()).putDouble(food.getPosition().getY())
+                        .putInt(food.getEnergyValue());
+            }
+            out.force();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // parallelism only applies to double-buffered checkpoints; a serial run
+    // resumes serial, whatever is asked
+    public static BatchSimulation load(Path file, int parallelism) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) throw new IOException("Not a checkpoint: " + file);
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            in.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                throw new IOException("Not a checkpoint: " + file);
+            }
+            int width = in.getInt();
+            int height = in.getInt();
+            boolean doubleBuffered = in.getInt() != 0;
+            long tick = in.getLong();
+            long nextFoodTime = in.getLong();
+            long nextSerial = in.getLong();
+            long randomState = in.getLong();
+            long births = in.getLong();
+            long deaths = in.getLong();
+            long captures = in.getLong();
+            long foodEaten = in.getLong();
+            long nextFoodId = in.getLong();
+            long nextSequence = in.getLong();
+            SimConfig config = loadParams(in);
+            int agentCount = in.getInt();
+            int foodCount = in.getInt();
+            if (channel.size() != HEADER_SIZE + (long) agentCount * AGENT_SIZE + (long) foodCount * FOOD_SIZE) {
+                throw new IOException("Truncated checkpoint: " + file);
+            }
+
+            BatchSimulation simulation = new BatchSimulation(0, doubleBuffered, doubleBuffered ? parallelism : 1, config);
+            Environment environment = simulation.getEnvironment();
+            if (environment.getWidth() != width || environment.getHeight() != height) {
+                throw new IOException("Checkpoint world is " + width + "x" + height + ", expected "
+                        + environment.getWidth() + "x" + environment.getHeight());
+            }
+            simulation.restoreClock(tick, nextFoodTime, nextSerial, randomState);
+
+            List<AgentLogic> restored = new ArrayList<>(agentCount);
+            int[] gridOrder = new int[agentCount];
+            long[] sequences = new long[agentCount];
+            boolean[] ranked = new boolean[agentCount];
+            for (int i = 0; i < agentCount; i++) {
+                boolean prey = in.get() == PREY;
+                boolean justAte = in.get() != 0;
+                long serial = in.getLong();
+                double x = in.getDouble();
+                double y = in.getDouble();
+                int energy = in.getInt();
+                int reproductionCooldown = in.getInt();
+                int age = in.getInt();
+                int eatingCooldown = in.getInt();
+                long nextStepTime = in.getLong();
+                long agentRandomState = in.getLong();
+                sequences[i] = in.getLong();
+                int rank = in.getInt();
+                if (rank < 0 || rank >= agentCount || ranked[rank]) {
+                    throw new IOException("Corrupt checkpoint, bad grid rank " + rank + ": " + file);
+                }
+                ranked[rank] = true;
+                gridOrder[rank] = i;
+
+                AgentLogic agent;
+                if (prey) {
+                    PreyLogic preyLogic = new PreyLogic(new AID("Prey_" + serial, AID.ISGUID), new Position(x, y), config);
+                    preyLogic.restoreAge(age);
+                    agent = preyLogic;
+                } else {
+                    PredatorLogic predator = new PredatorLogic(new AID("Predator_" + serial, AID.ISGUID), new Position(x, y), config);
+                    predator.restoreHunger(eatingCooldown, age, justAte);
+                    agent = predator;
+                }
+                agent.restoreState(x, y, energy, reproductionCooldown);
+                agent.setNextStepTime(nextStepTime);
+                agent.setRandom(new SimRandom(agentRandomState));
+                restored.add(agent);
+            }
+            simulation.restoreAgents(restored, gridOrder, sequences);
+            for (int i = 0; i < foodCount; i++) {
+                long id = in.getLong();
+                double x = in.getDouble();
+                double y = in.getDouble();
+                environment.restoreFood(id, x, y, in.getInt());
+            }
+            environment.restoreTotals(births, deaths, captures, foodEaten, nextFoodId, nextSequence);
+            return simulation;
+        }
+    }
+
+    private static void saveParams(MappedByteBuffer out, SimConfig config) {
+        out.putInt(config.getPreyEnergyStart())
+                .putInt(config.getPreyEnergyMax())
+                .putInt(config.getPreyReproThreshold())
+                .putInt(config.getPreyReproCost())
+                .putInt(config.getPredEnergyStart())
+                .putInt(config.getPredEnergyMax())
+                .putInt(config.getPredEnergyGain())
+                .putInt(config.getPredReproThreshold())
+                .putInt(config.getPredReproCost())
+                .putInt(config.getFoodEnergyValue())
+                .putInt(config.getFoodSpawnRate())
+                .putInt(config.getFoodPerSpawn())
+                .putDouble(config.getPreySpeed())
+                .putDouble(config.getPredSpeed());
+    }
+
+    private static SimConfig loadParams(MappedByteBuffer in) {
+        return new SimConfig.Builder()
+                .preyEnergyStart(in.getInt())
+                .preyEnergyMax(in.getInt())
+                .preyReproThreshold(in.getInt())
+                .preyReproCost(in.getInt())
+                .predEnergyStart(in.getInt())
+                .predEnergyMax(in.getInt())
+                .predEnergyGain(in.getInt())
+                .predReproThreshold(in.getInt())
+                .predReproCost(in.getInt())
+                .foodEnergyValue(in.getInt())
+                .foodSpawnRate(in.getInt())
+                .foodPerSpawn(in.getInt())
+                .preySpeed(in.getDouble())
+                .predSpeed(in.getDouble())
+                .build();
+    }
+}
@@ -1,21 +1,74 @@
 import jade.core.AID;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+// Shared world state. Nothing here takes a global lock: the agent map is a
+// ConcurrentHashMap and the grids lock per cell (see SpatialGrid), so
+// perception reads run in parallel and writers only contend with agents in
+// the same region. The optional AgentStore trades that for one read-write
+// lock around its columns. Removals go
+// through ConcurrentHashMap.remove and Food.tryConsume, which succeed for
+// exactly one caller: tryCapture and tryConsume are the claim APIs agents use,
+// so a prey is eaten and a food item consumed only once.
 public class Environment {
     private static Environment instance;
     private int width = 800;
     private int height = 600;
     private Map<AID, AgentInfo> agents;
-    private List<Food> foods;  // FOOD SYSTEM
+    private SpatialGrid<Food> foods;  // FOOD SYSTEM
+    private final Map<Long, Food> foodById = new ConcurrentHashMap<>();
+    private final AtomicLong nextFoodId = new AtomicLong();
+    private final AtomicLong nextSequence = new AtomicLong();
+    private SpatialGrid<AgentInfo> agentGrid;
+    private volatile AgentStore agentStore;  // optional primitive columns, null when off
+    // Live counts and running totals, kept up to date on every change so
+    // nobody has to scan the map to count (see getStats)
+    private final AtomicInteger preyCount = new AtomicInteger();
+    private final AtomicInteger predatorCount = new AtomicInteger();
+    private final LongAdder births = new LongAdder();
+    private final LongAdder deaths = new LongAdder();
+    private final LongAdder captures = new LongAdder();
+    private final LongAdder foodEaten = new LongAdder();
+    // Energy of every registered agent; moves with registrations, updateAgent and removals
+    private final LongAdder totalEnergy = new LongAdder();
+
+    // Set -Dsim.spatialIndex=false to fall back to the linear scan
+    private volatile boolean spatialIndexEnabled =
+            !"false".equalsIgnoreCase(System.getProperty("sim.spatialIndex"));
 
     private static final double COLLISION_DISTANCE = 10.0;
-    private static final int FOOD_ENERGY = 35;  // Increased from 25 to 35
+    // Largest vision range, so a perception query touches at most 3x3 cells
+    static final double GRID_CELL_SIZE = Math.max(PreyLogic.VISION_RANGE, PredatorLogic.VISION_RANGE);
+    static final double FOOD_CELL_SIZE = PreyLogic.FOOD_SEARCH_RADIUS;
+
+    // Per-agent console logging; the batch engine turns it off
+    private volatile boolean verbose = true;
+
+    // Parameters of the run; the GUI replaces them when the panel applies new ones
+    private volatile SimConfig config = SimConfig.DEFAULTS;
 
-    private Environment() {
+    // Sees agents and food come and go, e.g. a ReplayRecorder; null when nobody listens
+    private volatile EnvironmentListener listener;
+
+    // Double-buffered mode: perception reads the front snapshot, moves only
+    // touch each agent's own AgentInfo, and swapBuffers() publishes them
+    private volatile boolean doubleBuffered = false;
+    private volatile WorldSnapshot front;
+    private WorldSnapshot back;
+
+    // The GUI simulation shares getInstance(); the batch engine owns its own
+    Environment() {
         agents = new ConcurrentHashMap<>();
-        foods = new CopyOnWriteArrayList<>();
+        foods = new SpatialGrid<>(width, height, FOOD_CELL_SIZE);
+        agentGrid = new SpatialGrid<>(width, height, GRID_CELL_SIZE);
+        // Set -Dsim.agentStore=true to keep the agents in primitive columns and
+        // answer neighbour and collision queries from them
+        if (Boolean.getBoolean("sim.agentStore")) {
+            agentStore = new AgentStore(256, width, height, GRID_CELL_SIZE);
+        }
     }
 
     public static synchronized Environment getInstance() {
@@ -25,31 +78,234 @@ public class Environment {
         return instance;
     }
 
-    public synchronized void registerAgent(AID aid, String type, Position position, int energy) {
-        AgentInfo info = new AgentInfo(aid, type, position, energy);
-        agents.put(aid, info);
-        System.out.println("âœ“ Registered: " + info);
+    // Returns the agent's live entry; its isAlive() turns false once the agent
+    // is captured or unregistered
+    public AgentInfo registerAgent(AID aid, String type, Position position, int energy) {
+        // The agent keeps mutating its own Position in place, so store a copy;
+        // the copy is never changed, moves replace it (see moveAgent)
+        AgentInfo info = new AgentInfo(aid, type, new Position(position.getX(), position.getY()), energy);
+        info.setSequence(nextSequence.getAndIncrement());
+        // Index first, publish last: nobody can find and remove a half-registered agent
+        agentGrid.insert(info);
+        AgentStore store = agentStore;
+        if (store != null) store.add(info);
+        AgentInfo previous = agents.put(aid, info);
+        count(info, 1);
+        totalEnergy.add(energy);
+        if (previous != null) {
+            count(previous, -1);
+            retire(previous);
+            agentGrid.remove(previous);
+            if (store != null) store.remove(previous);
+        }
+        EnvironmentListener l = listener;
+        if (l != null) {
+            if (previous != null) l.agentRemoved(previous, false);
+            l.agentAdded(info);
+        }
+        if (verbose) System.out.println("âœ“ Registered: " + info);
+        return info;
+    }
+
+    // Counts one offspring. Registration alone does not, so founders, manual
+    // spawns and restored agents stay out of the births total; whoever
+    // creates a child calls this once it is on its way.
+    public void recordBirth() {
+        births.increment();
     }
 
-    public synchronized void unregisterAgent(AID aid) {
+    public void unregisterAgent(AID aid) {
         AgentInfo removed = agents.remove(aid);
         if (removed != null) {
-            System.out.println("âœ— Removed: " + removed);
+            deaths.increment();
+            detach(removed);
+            EnvironmentListener l = listener;
+            if (l != null) l.agentRemoved(removed, false);
+        }
+    }
+
+    // Empties the world for a new run: agents are dropped without counting as
+    // deaths, food is cleared and the running totals start again from zero.
+    // Each agent sees isAlive() turn false and stops on its own.
+    public void reset() {
+        for (AID aid : new ArrayList<>(agents.keySet())) {
+            AgentInfo removed = agents.remove(aid);
+            if (removed != null) {
+                detach(removed);
+                EnvironmentListener l = listener;
+                if (l != null) l.agentRemoved(removed, false);
+            }
+        }
+        clearFoods();
+        births.reset();
+        deaths.reset();
+        captures.reset();
+        foodEaten.reset();
+    }
+
+    private void count(AgentInfo info, int delta) {
+        if (info.isPrey()) {
+            preyCount.addAndGet(delta);
+        } else if (info.isPredator()) {
+            predatorCount.addAndGet(delta);
+        }
+    }
+
+    private void detach(AgentInfo removed) {
+        count(removed, -1);
+        retire(removed);
+        agentGrid.remove(removed);
+        AgentStore store = agentStore;
+        if (store != null) store.remove(removed);
+        if (verbose) System.out.println("âœ— Removed: " + removed);
+    }
+
+    // Locked against updateAgent so a late energy update of a removed agent
+    // cannot leak into totalEnergy
+    private void retire(AgentInfo info) {
+        synchronized (info) {
+            info.markRemoved();
+            totalEnergy.add(-info.getEnergy());
+        }
+    }
+
+    // Compare-and-claim capture: removes the prey only if it is still the same
+    // registered prey and the predator is alive. Exactly one predator wins.
+    public boolean tryCapture(AID predatorId, AID preyId) {
+        AgentInfo predator = agents.get(predatorId);
+        AgentInfo prey = agents.get(preyId);
+        if (predator == null || !predator.isPredator() || prey == null || !prey.isPrey()) {
+            return false;
+        }
+        if (!agents.remove(preyId, prey)) {
+            return false;
         }
+        captures.increment();
+        deaths.increment();
+        detach(prey);
+        EnvironmentListener l = listener;
+        if (l != null) l.agentRemoved(prey, true);
+        return true;
     }
 
-    public synchronized void updatePosition(AID aid, Position newPosition) {
+    public void updatePosition(AID aid, Position newPosition) {
         AgentInfo info = agents.get(aid);
         if (info != null) {
-            // Garder dans les limites de l'environnement
-            double x = Math.max(0, Math.min(width, newPosition.getX()));
-            double y = Math.max(0, Math.min(height, newPosition.getY()));
-            info.setPosition(new Position(x, y));
+            moveAgent(info, newPosition);
+        }
+    }
+
+    private void moveAgent(AgentInfo info, Position newPosition) {
+        // Garder dans les limites de l'environnement
+        double x = Math.max(0, Math.min(width, newPosition.getX()));
+        double y = Math.max(0, Math.min(height, newPosition.getY()));
+        // Other threads read the AgentInfo without a lock, so each move
+        // publishes a new Position rather than changing the one they may hold
+        Position published = new Position(x, y);
+        if (doubleBuffered) {
+            // Only the owner writes here; the grid catches up in swapBuffers()
+            info.setPosition(published);
+        } else {
+            agentGrid.moveTo(info, published);
+        }
+        AgentStore store = agentStore;
+        if (store != null) store.setPosition(info, x, y);
+    }
+
+    // Position plus energy in one call
+    public void updateAgent(AgentLogic logic) {
+        AgentInfo info = agents.get(logic.getAID());
+        if (info != null) {
+            moveAgent(info, logic.getPosition());
+            synchronized (info) {
+                if (info.isAlive()) {
+                    totalEnergy.add(logic.getEnergy() - info.getEnergy());
+                    info.setEnergy(logic.getEnergy());
+                }
+            }
+            AgentStore store = agentStore;
+            if (store != null) {
+                store.setVitals(info, logic.getEnergy(), logic.getAge(),
+                        logic.getReproductionCooldown(), logic.getEatingCooldown());
+            }
+        }
+    }
+
+    public boolean isAgentStoreEnabled() { return agentStore != null; }
+
+    // Builds the store from the current agents, or drops it. Meant to be
+    // called before agents start running.
+    public synchronized void setAgentStoreEnabled(boolean enabled) {
+        if (enabled && agentStore == null) {
+            agentStore = new AgentStore(agents.size(), width, height, GRID_CELL_SIZE);
+            for (AgentInfo info : agents.values()) {
+                agentStore.add(info);
+            }
+        } else if (!enabled && agentStore != null) {
+            agentStore.clear();
+            agentStore = null;
+        }
+    }
+
+    public boolean isVerbose() { return verbose; }
+    public void setVerbose(boolean verbose) { this.verbose = verbose; }
+
+    public boolean isDoubleBuffered() { return doubleBuffered; }
+
+    // Switch modes between ticks, never while agents are stepping
+    public synchronized void setDoubleBuffered(boolean enabled) {
+        if (enabled && !doubleBuffered) {
+            front = new WorldSnapshot(width, height, GRID_CELL_SIZE);
+            back = new WorldSnapshot(width, height, GRID_CELL_SIZE);
+            doubleBuffered = true;
+            swapBuffers();
+        } else if (!enabled && doubleBuffered) {
+            doubleBuffered = false;
+            syncGrid();
+            front = null;
+            back = null;
         }
     }
 
-    public synchronized List<AgentInfo> getNearbyAgents(AID requester, Position position, double radius) {
+    // Tick boundary: the moves written since the last swap become what
+    // everybody perceives during the next tick
+    public synchronized void swapBuffers() {
+        if (!doubleBuffered) return;
+        syncGrid();
+        WorldSnapshot next = back;
+        next.rebuild(agents.values());
+        back = front;
+        front = next;
+    }
+
+    private void syncGrid() {
+        for (AgentInfo info : agents.values()) {
+            agentGrid.moveTo(info, info.getPosition());
+        }
+    }
+
+    public boolean isSpatialIndexEnabled() { return spatialIndexEnabled; }
+    public void setSpatialIndexEnabled(boolean enabled) { this.spatialIndexEnabled = enabled; }
+
+    public List<AgentInfo> getNearbyAgents(AID requester, Position position, double radius) {
         List<AgentInfo> nearby = new ArrayList<>();
+        WorldSnapshot snapshot = front;
+        if (doubleBuffered && snapshot != null) {
+            AgentInfo self = requester != null ? agents.get(requester) : null;
+            snapshot.query(position.getX(), position.getY(), radius, self, nearby);
+            return nearby;
+        }
+        AgentStore store = agentStore;
+        if (store != null) {
+            AgentInfo self = requester != null ? agents.get(requester) : null;
+            store.query(position.getX(), position.getY(), radius, self, nearby);
+            return nearby;
+        }
+        if (spatialIndexEnabled) {
+            AgentInfo self = requester != null ? agents.get(requester) : null;
+            agentGrid.query(position.getX(), position.getY(), radius, self, nearby);
+            return nearby;
+        }
         for (Map.Entry<AID, AgentInfo> entry : agents.entrySet()) {
             if (!entry.getKey().equals(requester)) {
                 AgentInfo info = entry.getValue();
@@ -61,7 +317,26 @@ public class Environment {
         return nearby;
     }
 
-    public synchronized AgentInfo checkPreyCollision(Position predatorPos) {
+    public AgentInfo checkPreyCollision(Position predatorPos) {
+        WorldSnapshot snapshot = front;
+        AgentStore store = agentStore;
+        if (store != null && !doubleBuffered) {
+            return store.findPrey(predatorPos.getX(), predatorPos.getY(), COLLISION_DISTANCE);
+        }
+        if (spatialIndexEnabled || (doubleBuffered && snapshot != null)) {
+            List<AgentInfo> candidates = new ArrayList<>();
+            if (doubleBuffered && snapshot != null) {
+                snapshot.query(predatorPos.getX(), predatorPos.getY(), COLLISION_DISTANCE, null, candidates);
+            } else {
+                agentGrid.query(predatorPos.getX(), predatorPos.getY(), COLLISION_DISTANCE, null, candidates);
+            }
+            for (AgentInfo info : candidates) {
+                if (info.isPrey()) {
+                    return info;
+                }
+            }
+            return null;
+        }
         for (AgentInfo info : agents.values()) {
             if (info.isPrey() && info.getPosition().distance(predatorPos) <= COLLISION_DISTANCE) {
                 return info;
@@ -70,7 +345,7 @@ public class Environment {
         return null;
     }
 
-    public synchronized List<AgentInfo> getAllPrey() {
+    public List<AgentInfo> getAllPrey() {
         List<AgentInfo> preyList = new ArrayList<>();
         for (AgentInfo info : agents.values()) {
             if (info.isPrey()) {
@@ -80,7 +355,7 @@ public class Environment {
         return preyList;
     }
 
-    public synchronized List<AgentInfo> getAllPredators() {
+    public List<AgentInfo> getAllPredators() {
         List<AgentInfo> predatorList = new ArrayList<>();
         for (AgentInfo info : agents.values()) {
             if (info.isPredator()) {
@@ -97,53 +372,174 @@ public class Environment {
         return new HashMap<>(agents);
     }
 
+    public int getAgentCount() {
+        return agents.size();
+    }
+
     public int getPreyCount() {
-        return (int) agents.values().stream().filter(AgentInfo::isPrey).count();
+        return preyCount.get();
     }
 
     public int getPredatorCount() {
-        return (int) agents.values().stream().filter(AgentInfo::isPredator).count();
+        return predatorCount.get();
+    }
+
+    public SimulationStats getStats() {
+        return new SimulationStats(preyCount.get(), predatorCount.get(), foods.size(),
+                births.sum(), deaths.sum(), captures.sum(), foodEaten.sum(), totalEnergy.sum());
     }
 
     // FOOD MANAGEMENT
-    public synchronized void spawnFood(Position position) {
-        foods.add(new Food(position, FOOD_ENERGY));
+    public void spawnFood(Position position) {
+        Food food = new Food(nextFoodId.getAndIncrement(), position, config.getFoodEnergyValue());
+        foodById.put(food.getId(), food);
+        foods.insert(food);
+        EnvironmentListener l = listener;
+        if (l != null) l.foodAdded(food);
     }
 
-    public synchronized Food findNearestFood(Position position, double radius) {
-        Food nearest = null;
-        double minDist = radius;
+    // One food spawn of the visualizer clock: count items, kept 50px from the edges
+    public void spawnRandomFood(int count, SimRandom random) {
+        for (int i = 0; i < count; i++) {
+            double x = 50 + random.nextDouble() * (width - 100);
+            double y = 50 + random.nextDouble() * (height - 100);
+            spawnFood(new Position(x, y));
+        }
+    }
 
-        for (Food food : foods) {
-            if (!food.isConsumed()) {
-                double dist = position.distance(food.getPosition());
-                if (dist < minDist) {
-                    minDist = dist;
-                    nearest = food;
-                }
+    // Puts back a food item saved in a checkpoint, keeping its id
+    void restoreFood(long id, double x, double y, int energyValue) {
+        Food food = new Food(id, new Position(x, y), energyValue);
+        foodById.put(id, food);
+        foods.insert(food);
+        EnvironmentListener l = listener;
+        if (l != null) l.foodAdded(food);
+    }
+
+    long getNextFoodId() { return nextFoodId.get(); }
+    long getNextSequence() { return nextSequence.get(); }
+
+    // Live view of the agent map, for readers that only iterate and would
+    // rather not pay for getAllAgents' copy
+    Collection<AgentInfo> getLiveAgents() { return agents.values(); }
+
+    // Agents in the order the grid returns them, which decides who wins a
+    // tie between equally distant neighbours in single-buffered mode
+    List<AgentInfo> getAgentsInGridOrder() {
+        List<AgentInfo> all = new ArrayList<>(agents.size());
+        agentGrid.addAllTo(all);
+        return all;
+    }
+
+    // Overwrites the running totals with those of a checkpoint, once its
+    // agents and food are back
+    void restoreTotals(long births, long deaths, long captures, long foodEaten, long nextFoodId, long nextSequence) {
+        this.births.reset();
+        this.births.add(births);
+        this.deaths.reset();
+        this.deaths.add(deaths);
+        this.captures.reset();
+        this.captures.add(captures);
+        this.foodEaten.reset();
+        this.foodEaten.add(foodEaten);
+        this.nextFoodId.set(nextFoodId);
+        this.nextSequence.set(nextSequence);
+    }
+
+    public Food findNearestFood(Position position, double radius) {
+        // Consumed food is removed from the grid right away
+        return foods.nearest(position.getX(), position.getY(), radius);
+    }
+
+    public boolean consumeFood(Food food) {
+        return food != null && tryConsume(food.getId()) != null;
+    }
+
+    // Compare-and-claim consumption: returns the food for exactly one caller,
+    // null for everyone else
+    public Food tryConsume(long foodId) {
+        Food food = foodById.get(foodId);
+        if (food == null || !food.tryConsume()) {
+            return null;
+        }
+        foodById.remove(foodId);
+        foods.remove(food);
+        foodEaten.increment();
+        EnvironmentListener l = listener;
+        if (l != null) l.foodRemoved(food);
+        return food;
+    }
+
+    // Copies everything the renderer needs into a new FrameSnapshot. Agents
+    // and food registered while copying may or may not make it in.
+    public FrameSnapshot captureFrame() {
+        SimulationStats stats = getStats();
+
+        int capacity = agents.size() + 16;
+        double[] agentX = new double[capacity];
+        double[] agentY = new double[capacity];
+        byte[] agentSpecies = new byte[capacity];
+        int agentCount = 0;
+        AgentStore store = agentStore;
+        if (store != null) {
+            agentCount = store.copyPositions(agentX, agentY, agentSpecies);
+        } else {
+            for (AgentInfo info : agents.values()) {
+                if (agentCount == capacity) break;
+                Position p = info.getPosition();
+                agentX[agentCount] = p.getX();
+                agentY[agentCount] = p.getY();
+                agentSpecies[agentCount] = info.isPrey() ? AgentStore.PREY : AgentStore.PREDATOR;
+                agentCount++;
             }
         }
-        return nearest;
+
+        int foodCapacity = foodById.size() + 16;
+        double[] foodX = new double[foodCapacity];
+        double[] foodY = new double[foodCapacity];
+        int foodCount = 0;
+        for (Food food : foodById.values()) {
+            if (foodCount == foodCapacity) break;
+            foodX[foodCount] = food.getPosition().getX();
+            foodY[foodCount] = food.getPosition().getY();
+            foodCount++;
+        }
+
+        return new FrameSnapshot(agentX, agentY, agentSpecies, agentCount, foodX, foodY, foodCount, stats);
     }
 
-    public synchronized boolean consumeFood(Food food) {
-        if (food != null && !food.isConsumed()) {
-            food.consume();
-            foods.remove(food);
-            return true;
+    public List<Food> getAllFoods() {
+        List<Food> all = new ArrayList<>(foods.size());
+        foods.addAllTo(all);
+        return all;
+    }
+
+    public void clearFoods() {
+        EnvironmentListener l = listener;
+        List<Food> cleared = l != null ? new ArrayList<>(foodById.values()) : null;
+        foods.clear();
+        foodById.clear();
+        if (l != null) {
+            for (Food food : cleared) l.foodRemoved(food);
         }
-        return false;
     }
 
-    public synchronized List<Food> getAllFoods() {
-        return new ArrayList<>(foods);
+    public SimConfig getConfig() { return config; }
+
+    public void setConfig(SimConfig config) {
+        this.config = config;
+    }
+
+    // The listener sees changes made after this call only
+    public void setListener(EnvironmentListener listener) {
+        this.listener = listener;
     }
 
-    public synchronized int getFoodCount() {
+    public int getFoodCount() {
         return foods.size();
     }
 
-    public synchronized boolean isRegistered(AID aid) {
+    public boolean isRegistered(AID aid) {
         return agents.containsKey(aid);
     }
 }
\ No newline at end of file
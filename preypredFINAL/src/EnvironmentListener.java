@@ -0,0 +1,11 @@
+// Told about every agent and food item entering or leaving an Environment
+// (see Environment.setListener). Called on the thread making the change,
+// right after it took effect, so implementations must be thread-safe.
+// Moves are not reported; a listener samples positions itself.
+public interface EnvironmentListener {
+    void agentAdded(AgentInfo info);
+    void agentRemoved(AgentInfo info, boolean captured);
+
+    void foodAdded(Food food);
+    void foodRemoved(Food food);
+}
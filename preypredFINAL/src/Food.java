@@ -1,30 +1,58 @@
-public class Food {
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class Food implements SpatialGrid.Entry {
+    private final long id;
     private Position position;
     private int energyValue;
-    private boolean consumed;
+    private final AtomicBoolean consumed = new AtomicBoolean(false);
+    private volatile int gridCell = -1;
+    private volatile int gridSlot = -1;
 
     public Food(Position position, int energyValue) {
+        this(-1, position, energyValue);
+    }
+
+    public Food(long id, Position position, int energyValue) {
+        this.id = id;
         this.position = position;
         this.energyValue = energyValue;
-        this.consumed = false;
+    }
+
+    public long getId() {
+        return id;
     }
 
     public Position getPosition() {
         return position;
     }
 
+    public void setPosition(Position position) {
+        this.position = position;
+    }
+
     public int getEnergyValue() {
         return energyValue;
     }
 
     public boolean isConsumed() {
-        return consumed;
+        return consumed.get();
     }
 
     public void consume() {
-        this.consumed = true;
+        consumed.set(true);
     }
 
+    // True for exactly one caller, however many prey race for this item
+    public boolean tryConsume() {
+        return consumed.compareAndSet(false, true);
+    }
+
+    // Spatial grid bookkeeping
+    public int getCell() { return gridCell; }
+    public void setCell(int cell) { this.gridCell = cell; }
+    public int getSlot() { return gridSlot; }
+    public void setSlot(int slot) { this.gridSlot = slot; }
+
     @Override
     public String toString() {
         return String.format("Food at %s (energy=%d)", position, energyValue);
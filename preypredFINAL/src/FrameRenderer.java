@@ -0,0 +1,234 @@
+import java.awt.*;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+// Draws a FrameSnapshot. Four modes, picked with -Dsim.render:
+//   vector   three anti-aliased ellipses per entity (the original look)
+//   sprites  the same look pre-rendered once into small images and blitted
+//   pixels   one 2x2 dot per entity, written straight into an int raster
+//   heatmap  density per HEAT_CELL square, green to red by predator share
+//   auto     (default) sprites, then pixels, then heatmap as the crowd grows
+public class FrameRenderer {
+    static final int SPRITE_LIMIT = 5_000;
+    static final int PIXEL_LIMIT = 60_000;
+    static final int HEAT_CELL = 8;
+
+    public enum Mode { VECTOR, SPRITES, PIXELS, HEATMAP, AUTO }
+
+    // Original palette
+    private static final Color FOOD_GLOW = new Color(255, 220, 0, 50);
+    private static final Color FOOD_CORE = new Color(255, 193, 7);
+    private static final Color PREY_SHADOW = new Color(0, 0, 0, 30);
+    private static final Color PREY_BODY = new Color(40, 167, 69);
+    private static final Color PREY_HIGHLIGHT = new Color(255, 255, 255, 100);
+    private static final Color PREDATOR_SHADOW = new Color(0, 0, 0, 40);
+    private static final Color PREDATOR_BODY = new Color(220, 53, 69);
+    private static final Color PREDATOR_HIGHLIGHT = new Color(255, 255, 255, 120);
+
+    private final Mode mode;
+    private final Ellipse2D.Double shape = new Ellipse2D.Double();
+
+    // Sprites, rendered on first use; each is drawn centred on the entity
+    private BufferedImage preySprite;
+    private BufferedImage predatorSprite;
+    private BufferedImage foodSprite;
+
+    // Raster reused by the pixel and heatmap modes
+    private BufferedImage raster;
+    private int[] pixels;
+    private int[] heatPrey = new int[0];
+    private int[] heatPredators = new int[0];
+
+    public FrameRenderer(Mode mode) {
+        this.mode = mode;
+    }
+
+    public static Mode modeFromProperty() {
+        String value = System.getProperty("sim.render", "auto");
+        try {
+            return Mode.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Mode de rendu inconnu: " + value);
+            return Mode.AUTO;
+        }
+    }
+
+    public Mode getMode() { return mode; }
+
+    // Mode actually used for a frame with this many agents
+    public Mode resolve(int agentCount) {
+        if (mode != Mode.AUTO) return mode;
+        if (agentCount <= SPRITE_LIMIT) return Mode.SPRITES;
+        if (agentCount <= PIXEL_LIMIT) return Mode.PIXELS;
+        return Mode.HEATMAP;
+    }
+
+    public void paint(Graphics2D g2d, FrameSnapshot frame, int width, int height) {
+        switch (resolve(frame.getAgentCount())) {
+            case VECTOR: paintVector(g2d, frame); break;
+            case SPRITES: paintSprites(g2d, frame); break;
+            case PIXELS: paintPixels(g2d, frame, width, height); break;
+            default: paintHeatmap(g2d, frame, width, height); break;
+        }
+    }
+
+    // ---- vector ----
+
+    private void paintVector(Graphics2D g2d, FrameSnapshot frame) {
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        for (int i = 0; i < frame.getFoodCount(); i++) {
+            drawFood(g2d, frame.getFoodX(i), frame.getFoodY(i));
+        }
+        for (int i = 0; i < frame.getAgentCount(); i++) {
+            drawAgent(g2d, frame.getAgentX(i), frame.getAgentY(i), frame.isPrey(i));
+        }
+    }
+
+    private void drawFood(Graphics2D g2d, double x, double y) {
+        fill(g2d, FOOD_GLOW, x - 8, y - 8, 16);    // Outer glow
+        fill(g2d, FOOD_CORE, x - 5, y - 5, 10);    // Inner circle
+    }
+
+    private void drawAgent(Graphics2D g2d, double x, double y, boolean prey) {
+        if (prey) {
+            fill(g2d, PREY_SHADOW, x - 5, y - 4, 10);       // Shadow
+            fill(g2d, PREY_BODY, x - 6, y - 6, 12);         // Agent
+            fill(g2d, PREY_HIGHLIGHT, x - 4, y - 5, 4);     // Highlight
+        } else {
+            fill(g2d, PREDATOR_SHADOW, x - 7, y - 6, 14);
+            fill(g2d, PREDATOR_BODY, x - 8, y - 8, 16);
+            fill(g2d, PREDATOR_HIGHLIGHT, x - 5, y - 6, 5);
+        }
+    }
+
+    private void fill(Graphics2D g2d, Color color, double x, double y, double size) {
+        g2d.setColor(color);
+        shape.setFrame(x, y, size, size);
+        g2d.fill(shape);
+    }
+
+    // ---- sprites ----
+
+    private static final int SPRITE_SIZE = 20;
+    private static final int SPRITE_CENTER = SPRITE_SIZE / 2;
+
+    private void paintSprites(Graphics2D g2d, FrameSnapshot frame) {
+        if (preySprite == null) {
+            GraphicsConfiguration config = g2d.getDeviceConfiguration();
+            preySprite = renderSprite(config, 0);
+            predatorSprite = renderSprite(config, 1);
+            foodSprite = renderSprite(config, 2);
+        }
+        for (int i = 0; i < frame.getFoodCount(); i++) {
+            blit(g2d, foodSprite, frame.getFoodX(i), frame.getFoodY(i));
+        }
+        for (int i = 0; i < frame.getAgentCount(); i++) {
+            blit(g2d, frame.isPrey(i) ? preySprite : predatorSprite, frame.getAgentX(i), frame.getAgentY(i));
+        }
+    }
+
+    private void blit(Graphics2D g2d, BufferedImage sprite, double x, double y) {
+        g2d.drawImage(sprite, (int) Math.round(x) - SPRITE_CENTER, (int) Math.round(y) - SPRITE_CENTER, null);
+    }
+
+    // kind: 0 prey, 1 predator, 2 food
+    private BufferedImage renderSprite(GraphicsConfiguration config, int kind) {
+        BufferedImage sprite = config != null
+                ? config.createCompatibleImage(SPRITE_SIZE, SPRITE_SIZE, Transparency.TRANSLUCENT)
+                : new BufferedImage(SPRITE_SIZE, SPRITE_SIZE, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = sprite.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        if (kind == 2) {
+            drawFood(g, SPRITE_CENTER, SPRITE_CENTER);
+        } else {
+            drawAgent(g, SPRITE_CENTER, SPRITE_CENTER, kind == 0);
+        }
+        g.dispose();
+        return sprite;
+    }
+
+    // ---- pixels and heatmap ----
+
+    private void ensureRaster(int width, int height) {
+        if (raster == null || raster.getWidth() != width || raster.getHeight() != height) {
+            raster = new BufferedImage(Math.max(1, width), Math.max(1, height), BufferedImage.TYPE_INT_ARGB);
+            pixels = ((DataBufferInt) raster.getRaster().getDataBuffer()).getData();
+        }
+    }
+
+    private void paintPixels(Graphics2D g2d, FrameSnapshot frame, int width, int height) {
+        ensureRaster(width, height);
+        Arrays.fill(pixels, 0);
+        int w = raster.getWidth(), h = raster.getHeight();
+        int food = FOOD_CORE.getRGB(), prey = PREY_BODY.getRGB(), predator = PREDATOR_BODY.getRGB();
+        for (int i = 0; i < frame.getFoodCount(); i++) {
+            plot(w, h, frame.getFoodX(i), frame.getFoodY(i), food);
+        }
+        // Predators last so they stay visible in a crowd of prey
+        for (int i = 0; i < frame.getAgentCount(); i++) {
+            if (frame.isPrey(i)) plot(w, h, frame.getAgentX(i), frame.getAgentY(i), prey);
+        }
+        for (int i = 0; i < frame.getAgentCount(); i++) {
+            if (!frame.isPrey(i)) plot(w, h, frame.getAgentX(i), frame.getAgentY(i), predator);
+        }
+        g2d.drawImage(raster, 0, 0, null);
+    }
+
+    private void plot(int w, int h, double x, double y, int argb) {
+        int px = (int) x, py = (int) y;
+        if (px < 0 || py < 0 || px + 1 >= w || py + 1 >= h) return;
+        int offset = py * w + px;
+        pixels[offset] = argb;
+        pixels[offset + 1] = argb;
+        pixels[offset + w] = argb;
+        pixels[offset + w + 1] = argb;
+    }
+
+    private void paintHeatmap(Graphics2D g2d, FrameSnapshot frame, int width, int height) {
+        ensureRaster(width, height);
+        Arrays.fill(pixels, 0);
+        int w = raster.getWidth(), h = raster.getHeight();
+        int cols = (w + HEAT_CELL - 1) / HEAT_CELL, rows = (h + HEAT_CELL - 1) / HEAT_CELL;
+        if (heatPrey.length < cols * rows) {
+            heatPrey = new int[cols * rows];
+            heatPredators = new int[cols * rows];
+        } else {
+            Arrays.fill(heatPrey, 0);
+            Arrays.fill(heatPredators, 0);
+        }
+
+        int max = 1;
+        for (int i = 0; i < frame.getAgentCount(); i++) {
+            int c = (int) frame.getAgentX(i) / HEAT_CELL, r = (int) frame.getAgentY(i) / HEAT_CELL;
+            if (c < 0 || r < 0 || c >= cols || r >= rows) continue;
+            int cell = r * cols + c;
+            int total = frame.isPrey(i) ? ++heatPrey[cell] + heatPredators[cell] : heatPrey[cell] + ++heatPredators[cell];
+            if (total > max) max = total;
+        }
+
+        double logMax = Math.log1p(max);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int cell = r * cols + c;
+                int total = heatPrey[cell] + heatPredators[cell];
+                if (total == 0) continue;
+                // Opacity from density (log scale), colour from the predator share
+                int alpha = 60 + (int) (195 * Math.log1p(total) / logMax);
+                double share = (double) heatPredators[cell] / total;
+                int red = (int) (40 + share * (220 - 40));
+                int green = (int) (167 + share * (53 - 167));
+                fillCell(w, h, c * HEAT_CELL, r * HEAT_CELL, (alpha << 24) | (red << 16) | (green << 8) | 69);
+            }
+        }
+        g2d.drawImage(raster, 0, 0, null);
+    }
+
+    private void fillCell(int w, int h, int x0, int y0, int argb) {
+        int x1 = Math.min(w, x0 + HEAT_CELL), y1 = Math.min(h, y0 + HEAT_CELL);
+        for (int y = y0; y < y1; y++) {
+            Arrays.fill(pixels, y * w + x0, y * w + x1, argb);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+import javax.swing.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// The UI clock. At a target frame rate, on its own thread, it samples the
+// latest state of the simulation and publishes it to a FrameView, so the
+// simulation never waits for the screen and the screen never waits for a
+// tick. A sample is skipped while the Swing thread has not painted the
+// previous frame yet, so a slow paint drops frames instead of queueing them.
+public class FrameSampler {
+    private final Supplier<FrameSnapshot> source;
+    private final FrameView view;
+    private final Consumer<FrameSnapshot> listener;  // run on the Swing thread, may be null
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private ScheduledExecutorService executor;
+
+    public FrameSampler(Supplier<FrameSnapshot> source, FrameView view, Consumer<FrameSnapshot> listener) {
+        this.source = source;
+        this.view = view;
+        this.listener = listener;
+    }
+
+    // Target frame rate from -Dsim.fps, 30 by default
+    public static int fpsFromProperty() {
+        return Math.max(1, Integer.getInteger("sim.fps", 30));
+    }
+
+    public synchronized void start(int fps) {
+        stop();
+        executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "frame-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = TimeUnit.SECONDS.toNanos(1) / Math.max(1, fps);
+        executor.scheduleAtFixedRate(this::sample, 0, period, TimeUnit.NANOSECONDS);
+    }
+
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    public long getPublishedFrames() { return published.get(); }
+    public long getSkippedFrames() { return skipped.get(); }
+
+    private void sample() {
+        try {
+            if (view.isPaintPending()) {
+                skipped.incrementAndGet();
+                return;
+            }
+            FrameSnapshot frame = source.get();
+            view.publish(frame);
+            published.incrementAndGet();
+            if (listener != null) {
+                SwingUtilities.invokeLater(() -> listener.accept(frame));
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic task
+            System.err.println("Frame sampling failed: " + e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+// What one rendered frame shows: agent and food positions plus the counts of
+// the same instant. The simulation captures one per tick
+// (Environment.captureFrame) and hands it to the Swing thread, which draws
+// from it without touching the live Environment. Never modified once built.
+public class FrameSnapshot {
+    private final double[] agentX;
+    private final double[] agentY;
+    private final byte[] agentSpecies;  // AgentStore.PREY or AgentStore.PREDATOR
+    private final int agentCount;
+    private final double[] foodX;
+    private final double[] foodY;
+    private final int foodCount;
+    private final SimulationStats stats;
+
+    public FrameSnapshot(double[] agentX, double[] agentY, byte[] agentSpecies, int agentCount,
+                         double[] foodX, double[] foodY, int foodCount, SimulationStats stats) {
+        this.agentX = agentX;
+        this.agentY = agentY;
+        this.agentSpecies = agentSpecies;
+        this.agentCount = agentCount;
+        this.foodX = foodX;
+        this.foodY = foodY;
+        this.foodCount = foodCount;
+        this.stats = stats;
+    }
+
+    public int getAgentCount() { return agentCount; }
+    public double getAgentX(int i) { return agentX[i]; }
+    public double getAgentY(int i) { return agentY[i]; }
+    public boolean isPrey(int i) { return agentSpecies[i] == AgentStore.PREY; }
+
+    public int getFoodCount() { return foodCount; }
+    public double getFoodX(int i) { return foodX[i]; }
+    public double getFoodY(int i) { return foodY[i]; }
+
+    public SimulationStats getStats() { return stats; }
+}
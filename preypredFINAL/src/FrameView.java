@@ -0,0 +1,53 @@
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Swing component showing the latest published FrameSnapshot. publish() may
+// be called from any thread; isPaintPending() tells a FrameSampler whether
+// the Swing thread has painted the previous frame yet.
+public class FrameView extends JPanel {
+    private final FrameRenderer renderer = new FrameRenderer(FrameRenderer.modeFromProperty());
+    private final AtomicBoolean paintPending = new AtomicBoolean();
+
+    // Latest frame published by the simulation
+    private volatile FrameSnapshot frame;
+
+    public FrameView() {
+        setPreferredSize(new Dimension(900, 650));
+        setBackground(Color.WHITE);
+        setBorder(null); // Border handled by wrapper
+    }
+
+    public void publish(FrameSnapshot frame) {
+        this.frame = frame;
+        paintPending.set(true);
+        repaint();
+    }
+
+    // A new view alone in a window that ends the process when closed
+    public static FrameView openWindow(String title) {
+        FrameView view = new FrameView();
+        SwingUtilities.invokeLater(() -> {
+            JFrame window = new JFrame(title);
+            window.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            window.add(view);
+            window.pack();
+            window.setLocationRelativeTo(null);
+            window.setVisible(true);
+        });
+        return view;
+    }
+
+    public boolean isPaintPending() { return paintPending.get(); }
+
+    public FrameSnapshot getFrame() { return frame; }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        paintPending.set(false);
+        FrameSnapshot frame = this.frame;
+        if (frame == null) return;
+        renderer.paint((Graphics2D) g, frame, getWidth(), getHeight());
+    }
+}
@@ -0,0 +1,179 @@
+import jade.core.Agent;
+import jade.core.behaviours.TickerBehaviour;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+// Stands in for VisualizerAgent when there is no display: spawns the founders,
+// drives the same food clock, and writes the statistics to a CSV file instead
+// of drawing them. Loads no AWT or Swing class, so it runs on servers.
+// Arguments: prey, predators, ticks (0 = until extinction), stats file, stats
+// interval, and optionally a file recording every tick (see StatsRecorder)
+// and a replay log (see ReplayRecorder)
+public class HeadlessAgent extends Agent {
+    private Environment environment;
+    private BufferedWriter stats;
+    private StatsRecorder recorder;
+    private ReplayRecorder replay;
+    private long maxTicks;
+    private int statsEvery;
+    private long tickCount = 0;
+    private long startNanos;
+    private boolean finished = false;
+    // Founders register from their own setup(), possibly after the first
+    // ticks: extinction only counts once somebody has been alive
+    private boolean populated;
+
+    protected void setup() {
+        Object[] args = getArguments();
+        int prey = Integer.parseInt(String.valueOf(args[0]));
+        int predators = Integer.parseInt(String.valueOf(args[1]));
+        maxTicks = Long.parseLong(String.valueOf(args[2]));
+        String statsFile = String.valueOf(args[3]);
+        statsEvery = Math.max(1, Integer.parseInt(String.valueOf(args[4])));
+        long tickMillis;
+        try {
+            tickMillis = SimulationLauncher.tickMillisFromProperty();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            doDelete();
+            return;
+        }
+
+        environment = Environment.getInstance();
+        try {
+            stats = Files.newBufferedWriter(Paths.get(statsFile), StandardCharsets.UTF_8);
+            stats.write("tick,elapsed_ms,prey,predators,food,births,deaths,captures,food_eaten,mean_energy");
+            stats.newLine();
+            if (args.length > 5 && args[5] != null) {
+                recorder = new StatsRecorder(Paths.get(String.valueOf(args[5])));
+            }
+            // Before the founders, so they are born in the log
+            if (args.length > 6 && args[6] != null) {
+                replay = new ReplayRecorder(Paths.get(String.valueOf(args[6])), environment,
+                        ReplayRecorder.DEFAULT_KEYFRAME_EVERY);
+            }
+        } catch (IOException e) {
+            System.err.println("Impossible d'ecrire les statistiques dans " + statsFile + ": " + e.getMessage());
+            doDelete();
+            return;
+        }
+
+        populated = prey + predators == 0;
+        for (int i = 0; i < prey; i++) spawnAgent("PreyAgent", "Prey");
+        for (int i = 0; i < predators; i++) spawnAgent("PredatorAgent", "Predator");
+        startNanos = System.nanoTime();
+
+        // Same clock as the visualizer
+        addBehaviour(new TickerBehaviour(this, tickMillis) {
+            protected void onTick() {
+                simulationTick();
+            }
+        });
+
+        System.out.println("Headless Agent started, statistiques dans " + statsFile);
+    }
+
+    void simulationTick() {
+        if (finished) return;
+        tickCount++;
+
+        SimConfig config = environment.getConfig();
+        if (tickCount % config.getFoodSpawnRate() == 0) {
+            environment.spawnRandomFood(config.getFoodPerSpawn(), SimRandom.current());
+        }
+
+        SimulationStats current = environment.getStats();
+        if (recorder != null) recorder.record(tickCount, current);
+        if (replay != null) {
+            try {
+                replay.frame(tickCount);
+            } catch (IOException e) {
+                System.err.println("Erreur d'ecriture de la relecture, arretee: " + e.getMessage());
+                closeReplay();
+            }
+        }
+        boolean empty = current.getPreyCount() == 0 && current.getPredatorCount() == 0;
+        if (!empty) populated = true;
+        boolean extinct = empty && populated;
+        boolean last = extinct || (maxTicks > 0 && tickCount >= maxTicks);
+        if (tickCount % statsEvery == 0 || last) {
+            writeStats(current);
+        }
+        if (last) {
+            if (extinct) System.out.println("Extinction au tick " + tickCount);
+            finish(current);
+        }
+    }
+
+    private void writeStats(SimulationStats current) {
+        try {
+            stats.write(tickCount + "," + (System.nanoTime() - startNanos) / 1_000_000
+                    + "," + current.getPreyCount() + "," + current.getPredatorCount() + "," + current.getFoodCount()
+                    + "," + current.getBirths() + "," + current.getDeaths() + "," + current.getCaptures()
+                    + "," + current.getFoodEaten() + "," + String.format(Locale.ROOT, "%.2f", current.getMeanEnergy()));
+            stats.newLine();
+        } catch (IOException e) {
+            System.err.println("Erreur d'ecriture des statistiques: " + e.getMessage());
+        }
+    }
+
+    private void finish(SimulationStats current) {
+        finished = true;
+        try {
+            stats.close();
+        } catch (IOException e) {
+            System.err.println("Erreur de fermeture des statistiques: " + e.getMessage());
+        }
+        if (recorder != null) {
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                System.err.println("Erreur d'enregistrement des statistiques: " + e.getMessage());
+            }
+        }
+        closeReplay();
+        System.out.printf("%d ticks: proies=%d predateurs=%d nourriture=%d naissances=%d morts=%d captures=%d%n",
+                tickCount, current.getPreyCount(), current.getPredatorCount(), current.getFoodCount(),
+                current.getBirths(), current.getDeaths(), current.getCaptures());
+        if (ScheduledAgentRuntime.isEnabled()) {
+            ScheduledAgentRuntime.getInstance().shutdown();
+        }
+        // The animals are agents of the same JVM; a finished run ends the process
+        System.exit(0);
+    }
+
+    private void closeReplay() {
+        if (replay == null) return;
+        try {
+            replay.close();
+        } catch (IOException e) {
+            System.err.println("Erreur d'ecriture de la relecture: " + e.getMessage());
+        }
+        replay = null;
+    }
+
+    // Same placement as VisualizerAgent.spawnAgent
+    private void spawnAgent(String className, String prefix) {
+        double x = SimRandom.current().nextDouble() * environment.getWidth();
+        double y = SimRandom.current().nextDouble() * environment.getHeight();
+        if (ScheduledAgentRuntime.isEnabled()) {
+            if (className.equals("PreyAgent")) {
+                ScheduledAgentRuntime.getInstance().spawnPrey(x, y);
+            } else {
+                ScheduledAgentRuntime.getInstance().spawnPredator(x, y);
+            }
+            return;
+        }
+        try {
+            String name = prefix + System.nanoTime();
+            getContainerController().createNewAgent(name, className, new Object[]{x, y}).start();
+        } catch (Exception ex) {
+            System.err.println("Error spawning agent: " + ex.getMessage());
+        }
+    }
+}
@@ -1,7 +1,5 @@
 import javax.swing.*;
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.List;
 
 public class LotkaVolterraComparator extends JFrame {
 
@@ -16,8 +14,9 @@ public class LotkaVolterraComparator extends JFrame {
     private double dt = 0.1;
     private int steps = 2000;
 
-    private List<Double> preyPopulation;
-    private List<Double> predatorPopulation;
+    private final LotkaVolterraSolver.Method method = LotkaVolterraSolver.methodFromProperty();
+    private double[] preyPopulation;
+    private double[] predatorPopulation;
 
     public LotkaVolterraComparator() {
         setTitle("Modele de Lotka-Volterra - Comparaison Theorique");
@@ -34,25 +33,10 @@ public class LotkaVolterraComparator extends JFrame {
     }
 
     private void simulate() {
-        preyPopulation = new ArrayList<>();
-        predatorPopulation = new ArrayList<>();
-
-        double X = X0;
-        double Y = Y0;
-
-        for (int i = 0; i < steps; i++) {
-            preyPopulation.add(X);
-            predatorPopulation.add(Y);
-
-            double dX = (alpha * X - beta * X * Y) * dt;
-            double dY = (delta * X * Y - gamma * Y) * dt;
-
-            X += dX;
-            Y += dY;
-
-            X = Math.max(0, X);
-            Y = Math.max(0, Y);
-        }
+        preyPopulation = new double[steps];
+        predatorPopulation = new double[steps];
+        new LotkaVolterraSolver(alpha, beta, gamma, delta, method)
+                .integrate(X0, Y0, dt, steps, preyPopulation, predatorPopulation, 0);
     }
 
     class ChartPanel extends JPanel {
@@ -70,9 +54,11 @@ public class LotkaVolterraComparator extends JFrame {
             int height = getHeight();
             int padding = 60;
 
-            double maxPrey = preyPopulation.stream().max(Double::compareTo).orElse(1.0);
-            double maxPred = predatorPopulation.stream().max(Double::compareTo).orElse(1.0);
-            double maxPop = Math.max(maxPrey, maxPred);
+            double maxPop = 0;
+            for (int i = 0; i < steps; i++) {
+                maxPop = Math.max(maxPop, Math.max(preyPopulation[i], predatorPopulation[i]));
+            }
+            if (maxPop == 0) maxPop = 1.0;
 
             g2d.setColor(Color.BLACK);
             g2d.drawLine(padding, padding, padding, height - padding);
@@ -97,20 +83,20 @@ public class LotkaVolterraComparator extends JFrame {
 
             g2d.setColor(new Color(34, 139, 34));
             g2d.setStroke(new BasicStroke(2));
-            for (int i = 1; i < preyPopulation.size(); i++) {
+            for (int i = 1; i < preyPopulation.length; i++) {
                 int x1 = padding + (int) ((i - 1) * xScale);
-                int y1 = height - padding - (int) (preyPopulation.get(i - 1) * yScale);
+                int y1 = height - padding - (int) (preyPopulation[i - 1] * yScale);
                 int x2 = padding + (int) (i * xScale);
-                int y2 = height - padding - (int) (preyPopulation.get(i) * yScale);
+                int y2 = height - padding - (int) (preyPopulation[i] * yScale);
                 g2d.drawLine(x1, y1, x2, y2);
             }
 
             g2d.setColor(new Color(220, 20, 60));
-            for (int i = 1; i < predatorPopulation.size(); i++) {
+            for (int i = 1; i < predatorPopulation.length; i++) {
                 int x1 = padding + (int) ((i - 1) * xScale);
-                int y1 = height - padding - (int) (predatorPopulation.get(i - 1) * yScale);
+                int y1 = height - padding - (int) (predatorPopulation[i - 1] * yScale);
                 int x2 = padding + (int) (i * xScale);
-                int y2 = height - padding - (int) (predatorPopulation.get(i) * yScale);
+                int y2 = height - padding - (int) (predatorPopulation[i] * yScale);
                 g2d.drawLine(x1, y1, x2, y2);
             }
 
@@ -131,6 +117,7 @@ public class LotkaVolterraComparator extends JFrame {
             g2d.drawString(String.format("Î³ = %.2f (mort predateurs)", gamma), width - 250, 140);
             g2d.drawString(String.format("Î´ = %.3f (efficacite)", delta), width - 250, 155);
             g2d.drawString(String.format("Xa‚€ = %.0f, Ya‚€ = %.0f", X0, Y0), width - 250, 175);
+            g2d.drawString("Methode : " + method, width - 250, 195);
         }
     }
 
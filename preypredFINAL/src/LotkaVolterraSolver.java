@@ -0,0 +1,241 @@
+import java.util.stream.IntStream;
+
+// Integrates the Lotka-Volterra reference model
+//   dx/dt = alpha x - beta x y        (prey)
+//   dy/dt = delta x y - gamma y       (predators)
+// with one of three methods:
+//   EULER           the original forward Euler step; spirals outward, kept for comparison
+//   RK4             classic fourth-order Runge-Kutta, one step per dt (default)
+//   DORMAND_PRINCE  adaptive 5(4) pair, as many steps per dt as the tolerances need
+// Trajectories go into primitive double[] buffers. integrateBatch runs
+// thousands of parameter sets at once for fitting: fixed-step methods advance
+// a chunk of sets in lockstep over flat arrays, Dormand-Prince steps each set
+// on its own, and chunks run in parallel.
+public class LotkaVolterraSolver {
+    public enum Method { EULER, RK4, DORMAND_PRINCE }
+
+    static final double DEFAULT_RTOL = 1e-8;
+    static final double DEFAULT_ATOL = 1e-10;
+    static final int BATCH_CHUNK = 256;  // parameter sets per parallel task
+
+    // Dormand-Prince 5(4) tableau
+    private static final double A21 = 1.0 / 5;
+    private static final double A31 = 3.0 / 40, A32 = 9.0 / 40;
+    private static final double A41 = 44.0 / 45, A42 = -56.0 / 15, A43 = 32.0 / 9;
+    private static final double A51 = 19372.0 / 6561, A52 = -25360.0 / 2187, A53 = 64448.0 / 6561,
+            A54 = -212.0 / 729;
+    private static final double A61 = 9017.0 / 3168, A62 = -355.0 / 33, A63 = 46732.0 / 5247,
+            A64 = 49.0 / 176, A65 = -5103.0 / 18656;
+    private static final double B1 = 35.0 / 384, B3 = 500.0 / 1113, B4 = 125.0 / 192,
+            B5 = -2187.0 / 6784, B6 = 11.0 / 84;
+    // Fifth-order minus fourth-order weights: the local error estimate
+    private static final double E1 = 71.0 / 57600, E3 = -71.0 / 16695, E4 = 71.0 / 1920,
+            E5 = -17253.0 / 339200, E6 = 22.0 / 525, E7 = -1.0 / 40;
+
+    private final double alpha, beta, gamma, delta;
+    private final Method method;
+    private final double rtol, atol;
+    private double step;  // last Dormand-Prince step, reused as the next guess
+    private long acceptedSteps, rejectedSteps;
+
+    public LotkaVolterraSolver(double alpha, double beta, double gamma, double delta, Method method) {
+        this(alpha, beta, gamma, delta, method, DEFAULT_RTOL, DEFAULT_ATOL);
+    }
+
+    public LotkaVolterraSolver(double alpha, double beta, double gamma, double delta, Method method,
+                               double rtol, double atol) {
+        this.alpha = alpha;
+        this.beta = beta;
+        this.gamma = gamma;
+        this.delta = delta;
+        this.method = method;
+        this.rtol = rtol;
+        this.atol = atol;
+    }
+
+    // -Dsim.lvMethod=euler|rk4|dp, RK4 by default
+    public static Method methodFromProperty() {
+        String value = System.getProperty("sim.lvMethod", "rk4").toLowerCase();
+        switch (value) {
+            case "euler": return Method.EULER;
+            case "dp": case "dormand-prince": case "dormand_prince": return Method.DORMAND_PRINCE;
+            default: return Method.RK4;
+        }
+    }
+
+    public Method getMethod() { return method; }
+
+    // Dormand-Prince only: steps taken and steps redone with a smaller size
+    public long getAcceptedSteps() { return acceptedSteps; }
+    public long getRejectedSteps() { return rejectedSteps; }
+
+    // Moves state = {x, y} forward by dt. Populations never go below zero.
+    public void advance(double[] state, double dt) {
+        double x = state[0];
+        double y = state[1];
+        switch (method) {
+            case EULER: {
+                double dx = (alpha * x - beta * x * y) * dt;
+                double dy = (delta * x * y - gamma * y) * dt;
+                x += dx;
+                y += dy;
+                break;
+            }
+            case RK4: {
+                double k1x = alpha * x - beta * x * y, k1y = delta * x * y - gamma * y;
+                double x2 = x + 0.5 * dt * k1x, y2 = y + 0.5 * dt * k1y;
+                double k2x = alpha * x2 - beta * x2 * y2, k2y = delta * x2 * y2 - gamma * y2;
+                double x3 = x + 0.5 * dt * k2x, y3 = y + 0.5 * dt * k2y;
+                double k3x = alpha * x3 - beta * x3 * y3, k3y = delta * x3 * y3 - gamma * y3;
+                double x4 = x + dt * k3x, y4 = y + dt * k3y;
+                double k4x = alpha * x4 - beta * x4 * y4, k4y = delta * x4 * y4 - gamma * y4;
+                x += dt / 6 * (k1x + 2 * k2x + 2 * k3x + k4x);
+                y += dt / 6 * (k1y + 2 * k2y + 2 * k3y + k4y);
+                break;
+            }
+            default:
+                adaptive(state, dt);
+                return;
+        }
+        state[0] = Math.max(0, x);
+        state[1] = Math.max(0, y);
+    }
+
+    // Adaptive steps until exactly dt has elapsed; the last one is shortened to land on it
+    private void adaptive(double[] state, double dt) {
+        double x = state[0];
+        double y = state[1];
+        double h = step > 0 ? step : dt;
+        double t = 0;
+        double k1x = alpha * x - beta * x * y, k1y = delta * x * y - gamma * y;
+        while (t < dt) {
+            boolean last = h >= dt - t;
+            double hh = last ? dt - t : h;
+
+            double xs = x + hh * A21 * k1x, ys = y + hh * A21 * k1y;
+            double k2x = alpha * xs - beta * xs * ys, k2y = delta * xs * ys - gamma * ys;
+            xs = x + hh * (A31 * k1x + A32 * k2x);
+            ys = y + hh * (A31 * k1y + A32 * k2y);
+            double k3x = alpha * xs - beta * xs * ys, k3y = delta * xs * ys - gamma * ys;
+            xs = x + hh * (A41 * k1x + A42 * k2x + A43 * k3x);
+            ys = y + hh * (A41 * k1y + A42 * k2y + A43 * k3y);
+            double k4x = alpha * xs - beta * xs * ys, k4y = delta * xs * ys - gamma * ys;
+            xs = x + hh * (A51 * k1x + A52 * k2x + A53 * k3x + A54 * k4x);
+            ys = y + hh * (A51 * k1y + A52 * k2y + A53 * k3y + A54 * k4y);
+            double k5x = alpha * xs - beta * xs * ys, k5y = delta * xs * ys - gamma * ys;
+            xs = x + hh * (A61 * k1x + A62 * k2x + A63 * k3x + A64 * k4x + A65 * k5x);
+            ys = y + hh * (A61 * k1y + A62 * k2y + A63 * k3y + A64 * k4y + A65 * k5y);
+            double k6x = alpha * xs - beta * xs * ys, k6y = delta * xs * ys - gamma * ys;
+            double nx = x + hh * (B1 * k1x + B3 * k3x + B4 * k4x + B5 * k5x + B6 * k6x);
+            double ny = y + hh * (B1 * k1y + B3 * k3y + B4 * k4y + B5 * k5y + B6 * k6y);
+            // The derivative at the new point is the first stage of the next step
+            double k7x = alpha * nx - beta * nx * ny, k7y = delta * nx * ny - gamma * ny;
+
+            double ex = hh * (E1 * k1x + E3 * k3x + E4 * k4x + E5 * k5x + E6 * k6x + E7 * k7x);
+            double ey = hh * (E1 * k1y + E3 * k3y + E4 * k4y + E5 * k5y + E6 * k6y + E7 * k7y);
+            double sx = ex / (atol + rtol * Math.max(Math.abs(x), Math.abs(nx)));
+            double sy = ey / (atol + rtol * Math.max(Math.abs(y), Math.abs(ny)));
+            double error = Math.sqrt(0.5 * (sx * sx + sy * sy));
+
+            double factor = error == 0 ? 5 : Math.min(5, Math.max(0.2, 0.9 * Math.pow(error, -0.2)));
+            if (error <= 1) {
+                t = last ? dt : t + hh;
+                x = Math.max(0, nx);
+                y = Math.max(0, ny);
+                k1x = k7x;
+                k1y = k7y;
+                if (nx < 0 || ny < 0) {
+                    k1x = alpha * x - beta * x * y;
+                    k1y = delta * x * y - gamma * y;
+                }
+                acceptedSteps++;
+                // A shortened last step says nothing about the size that works
+                if (!last) h = hh * factor;
+            } else {
+                rejectedSteps++;
+                h = hh * factor;
+            }
+        }
+        step = h;
+        state[0] = x;
+        state[1] = y;
+    }
+
+    // Writes count samples spaced dt apart into xs and ys from offset,
+    // starting with (x0, y0) itself
+    public void integrate(double x0, double y0, double dt, int count, double[] xs, double[] ys, int offset) {
+        double[] state = {x0, y0};
+        for (int i = 0; i < count; i++) {
+            xs[offset + i] = state[0];
+            ys[offset + i] = state[1];
+            if (i + 1 < count) advance(state, dt);
+        }
+    }
+
+    // Integrates n = alpha.length parameter sets, each from its own (x0, y0).
+    // Set k's samples land in xs and ys at k * count .. k * count + count - 1.
+    public static void integrateBatch(Method method, double[] alpha, double[] beta, double[] gamma, double[] delta,
+                                      double[] x0, double[] y0, double dt, int count, double[] xs, double[] ys) {
+        int n = alpha.length;
+        if (beta.length != n || gamma.length != n || delta.length != n || x0.length != n || y0.length != n) {
+            throw new IllegalArgumentException("All parameter arrays must have the same length");
+        }
+        if (xs.length < (long) n * count || ys.length < (long) n * count) {
+            throw new IllegalArgumentException("Output buffers need " + (long) n * count + " slots");
+        }
+        int chunks = (n + BATCH_CHUNK - 1) / BATCH_CHUNK;
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int from = c * BATCH_CHUNK;
+            int to = Math.min(n, from + BATCH_CHUNK);
+            if (method == Method.DORMAND_PRINCE) {
+                for (int k = from; k < to; k++) {
+                    new LotkaVolterraSolver(alpha[k], beta[k], gamma[k], delta[k], method)
+                            .integrate(x0[k], y0[k], dt, count, xs, ys, k * count);
+                }
+            } else {
+                lockstep(method == Method.RK4, alpha, beta, gamma, delta, x0, y0, dt, count, xs, ys, from, to);
+            }
+        });
+    }
+
+    // Fixed steps for sets from..to-1 together: the inner loop runs over sets
+    // with the same straight-line arithmetic, which the JIT can vectorize
+    private static void lockstep(boolean rk4, double[] alpha, double[] beta, double[] gamma, double[] delta,
+                                 double[] x0, double[] y0, double dt, int count, double[] xs, double[] ys,
+                                 int from, int to) {
+        int m = to - from;
+        double[] x = new double[m];
+        double[] y = new double[m];
+        System.arraycopy(x0, from, x, 0, m);
+        System.arraycopy(y0, from, y, 0, m);
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < m; j++) {
+                int at = (from + j) * count + i;
+                xs[at] = x[j];
+                ys[at] = y[j];
+            }
+            if (i + 1 == count) break;
+            if (rk4) {
+                for (int j = 0; j < m; j++) {
+                    double a = alpha[from + j], b = beta[from + j], g = gamma[from + j], d = delta[from + j];
+                    double px = x[j], py = y[j];
+                    double k1x = a * px - b * px * py, k1y = d * px * py - g * py;
+                    double x2 = px + 0.5 * dt * k1x, y2 = py + 0.5 * dt * k1y;
+                    double k2x = a * x2 - b * x2 * y2, k2y = d * x2 * y2 - g * y2;
+                    double x3 = px + 0.5 * dt * k2x, y3 = py + 0.5 * dt * k2y;
+                    double k3x = a * x3 - b * x3 * y3, k3y = d * x3 * y3 - g * y3;
+                    double x4 = px + dt * k3x, y4 = py + dt * k3y;
+                    double k4x = a * x4 - b * x4 * y4, k4y = d * x4 * y4 - g * y4;
+                    x[j] = Math.max(0, px + dt / 6 * (k1x + 2 * k2x + 2 * k3x + k4x));
+                    y[j] = Math.max(0, py + dt / 6 * (k1y + 2 * k2y + 2 * k3y + k4y));
+                }
+            } else {
+                for (int j = 0; j < m; j++) {
+                    double px = x[j], py = y[j];
+                    x[j] = Math.max(0, px + dt * (alpha[from + j] * px - beta[from + j] * px * py));
+                    y[j] = Math.max(0, py + dt * (delta[from + j] * px * py - gamma[from + j] * py));
+                }
+            }
+        }
+    }
+}
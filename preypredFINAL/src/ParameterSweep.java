@@ -0,0 +1,273 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Runs many configurations at once, each a serial BatchSimulation with its own
+// SimConfig on one worker thread, and writes one summary row per run.
+// Usage: java ParameterSweep [--grid | --lhs N] --param NAME=MIN:MAX[:STEPS] ... [--param NAME=VALUE]
+//                            [--prey N] [--predators N] [--ticks N] [--seeds K] [--seed S]
+//                            [--threads T] [--out FILE]
+//
+// --grid (default) tries every combination of STEPS evenly spaced values per
+// parameter (5 by default); --lhs N draws a Latin hypercube of N points, each
+// range cut into N strata used once. Every point runs --seeds times, with
+// seeds S, S+1, ... NAME is one of SimConfig.PARAMETERS; the others keep
+// their defaults.
+//
+// A run stops at --ticks or as soon as either species dies out, since there
+// is nothing left to oscillate. The summary (sweep.csv by default) gives the
+// extinction tick and species, the mean populations, and the prey
+// oscillation period in ticks: the mean spacing of upward crossings of the
+// mean, with a band of a quarter standard deviation so noise does not count.
+public class ParameterSweep {
+    static final int DEFAULT_STEPS = 5;
+
+    // One swept parameter: its values, or its range for a Latin hypercube
+    static class Axis {
+        final String name;
+        final double min, max;
+        final int steps;
+
+        Axis(String name, double min, double max, int steps) {
+            this.name = name;
+            this.min = min;
+            this.max = max;
+            this.steps = steps;
+        }
+
+        // Parses NAME=MIN:MAX[:STEPS] or NAME=VALUE
+        static Axis parse(String spec) {
+            int eq = spec.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected NAME=MIN:MAX[:STEPS], got " + spec);
+            String name = spec.substring(0, eq);
+            SimConfig.DEFAULTS.get(name);  // rejects unknown names
+            String[] parts = spec.substring(eq + 1).split(":");
+            double min = Double.parseDouble(parts[0]);
+            double max = parts.length > 1 ? Double.parseDouble(parts[1]) : min;
+            int steps = parts.length > 2 ? Integer.parseInt(parts[2]) : (parts.length > 1 ? DEFAULT_STEPS : 1);
+            return new Axis(name, min, max, Math.max(1, steps));
+        }
+
+        double value(int step) {
+            return steps == 1 ? min : min + (max - min) * step / (steps - 1);
+        }
+    }
+
+    static class Summary {
+        long ticks;
+        long extinctionTick = -1;
+        String extinct = "";
+        double meanPrey;
+        double meanPredators;
+        double period = Double.NaN;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        boolean lhs = false;
+        int samples = 0;
+        List<Axis> axes = new ArrayList<>();
+        int prey = BatchSimulationLauncher.DEFAULT_PREY;
+        int predators = BatchSimulationLauncher.DEFAULT_PREDATORS;
+        long ticks = 100_000;
+        int seeds = 1;
+        long seed = 42;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String out = "sweep.csv";
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--grid": lhs = false; break;
+                case "--lhs": lhs = true; samples = Integer.parseInt(args[++i]); break;
+                case "--param": axes.add(Axis.parse(args[++i])); break;
+                case "--prey": prey = Integer.parseInt(args[++i]); break;
+                case "--predators": predators = Integer.parseInt(args[++i]); break;
+                case "--ticks": ticks = Long.parseLong(args[++i]); break;
+                case "--seeds": seeds = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--out": out = args[++i]; break;
+                default: System.err.println("Option inconnue: " + args[i]);
+            }
+        }
+
+        if (lhs && samples < 1) {
+            System.err.println("--lhs doit etre au moins 1: " + samples);
+            return;
+        }
+        if (seeds < 1) {
+            System.err.println("--seeds doit etre au moins 1: " + seeds);
+            return;
+        }
+        if (threads < 1) {
+            System.err.println("--threads doit etre au moins 1: " + threads);
+            return;
+        }
+
+        List<SimConfig> points = lhs ? latinHypercube(axes, samples, seed) : grid(axes);
+        int runs = points.size() * seeds;
+        System.out.println("=== Balayage de parametres ===");
+        System.out.printf("%d configurations x %d graine(s) = %d simulations sur %d thread(s), %d ticks max%n",
+                points.size(), seeds, runs, threads, ticks);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Summary>> futures = new ArrayList<>(runs);
+        long start = System.nanoTime();
+        for (SimConfig config : points) {
+            for (int s = 0; s < seeds; s++) {
+                long runSeed = seed + s;
+                int p = prey, q = predators;
+                long t = ticks;
+                futures.add(pool.submit(() -> run(config, runSeed, p, q, t)));
+            }
+        }
+        pool.shutdown();
+
+        try (BufferedWriter csv = Files.newBufferedWriter(Paths.get(out), StandardCharsets.UTF_8)) {
+            StringBuilder header = new StringBuilder("run,seed");
+            for (Axis axis : axes) header.append(',').append(axis.name);
+            header.append(",ticks,extinction_tick,extinct,period_ticks,mean_prey,mean_predators");
+            csv.write(header.toString());
+            csv.newLine();
+
+            // Rows in run order, written as soon as each is done
+            for (int run = 0; run < runs; run++) {
+                Summary summary;
+                try {
+                    summary = futures.get(run).get();
+                } catch (ExecutionException e) {
+                    System.err.println("Simulation " + run + " en erreur: " + e.getCause());
+                    continue;
+                }
+                SimConfig config = points.get(run / seeds);
+                StringBuilder row = new StringBuilder().append(run).append(',').append(seed + run % seeds);
+                for (Axis axis : axes) row.append(',').append(format(config.get(axis.name)));
+                row.append(',').append(summary.ticks)
+                        .append(',').append(summary.extinctionTick >= 0 ? String.valueOf(summary.extinctionTick) : "")
+                        .append(',').append(summary.extinct)
+                        .append(',').append(Double.isNaN(summary.period) ? "" : format(summary.period))
+                        .append(',').append(format(summary.meanPrey))
+                        .append(',').append(format(summary.meanPredators));
+                csv.write(row.toString());
+                csv.newLine();
+                System.out.printf("run %4d: %7d ticks  extinction=%-10s periode=%-8s proies=%.1f predateurs=%.1f%n",
+                        run, summary.ticks, summary.extinct.isEmpty() ? "-" : summary.extinct,
+                        Double.isNaN(summary.period) ? "-" : format(summary.period),
+                        summary.meanPrey, summary.meanPredators);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d simulations en %.1f s, resume dans %s%n", runs, seconds, out);
+    }
+
+    static List<SimConfig> grid(List<Axis> axes) {
+        List<SimConfig> points = new ArrayList<>();
+        int[] step = new int[axes.size()];
+        while (true) {
+            SimConfig.Builder builder = SimConfig.DEFAULTS.toBuilder();
+            for (int a = 0; a < axes.size(); a++) builder.set(axes.get(a).name, axes.get(a).value(step[a]));
+            points.add(builder.build());
+            // Odometer over the axes, last one fastest
+            int a = axes.size() - 1;
+            while (a >= 0 && ++step[a] == axes.get(a).steps) step[a--] = 0;
+            if (a < 0) return points;
+        }
+    }
+
+    static List<SimConfig> latinHypercube(List<Axis> axes, int samples, long seed) {
+        SimRandom random = new SimRandom(seed);
+        double[][] values = new double[axes.size()][samples];
+        for (int a = 0; a < axes.size(); a++) {
+            Axis axis = axes.get(a);
+            // One draw per stratum, then shuffled so axes pair up at random
+            for (int i = 0; i < samples; i++) {
+                values[a][i] = axis.min + (axis.max - axis.min) * (i + random.nextDouble()) / samples;
+            }
+            for (int i = samples - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                double swap = values[a][i];
+                values[a][i] = values[a][j];
+                values[a][j] = swap;
+            }
+        }
+        List<SimConfig> points = new ArrayList<>(samples);
+        for (int i = 0; i < samples; i++) {
+            SimConfig.Builder builder = SimConfig.DEFAULTS.toBuilder();
+            for (int a = 0; a < axes.size(); a++) builder.set(axes.get(a).name, values[a][i]);
+            points.add(builder.build());
+        }
+        return points;
+    }
+
+    static Summary run(SimConfig config, long seed, int prey, int predators, long maxTicks) {
+        BatchSimulation simulation = new BatchSimulation(seed, false, 1, config);
+        simulation.populate(prey, predators);
+        Summary summary = new Summary();
+        int[] preyCounts = new int[1024];
+        long preySum = 0, predatorSum = 0;
+        int n = 0;
+        while (n < maxTicks) {
+            simulation.tick();
+            int p = simulation.getPreyCount();
+            int q = simulation.getPredatorCount();
+            if (n == preyCounts.length) preyCounts = Arrays.copyOf(preyCounts, 2 * n);
+            preyCounts[n++] = p;
+            preySum += p;
+            predatorSum += q;
+            if (p == 0 || q == 0) {
+                summary.extinctionTick = simulation.getTick();
+                summary.extinct = p == 0 && q == 0 ? "les deux" : p == 0 ? "proies" : "predateurs";
+                break;
+            }
+        }
+        simulation.shutdown();
+        summary.ticks = n;
+        summary.meanPrey = n > 0 ? (double) preySum / n : 0;
+        summary.meanPredators = n > 0 ? (double) predatorSum / n : 0;
+        summary.period = period(preyCounts, n);
+        return summary;
+    }
+
+    // Mean spacing of upward crossings of the mean; NaN with fewer than three
+    static double period(int[] series, int n) {
+        if (n < 3) return Double.NaN;
+        double sum = 0, squares = 0;
+        for (int i = 0; i < n; i++) {
+            sum += series[i];
+            squares += (double) series[i] * series[i];
+        }
+        double mean = sum / n;
+        double band = 0.25 * Math.sqrt(Math.max(0, squares / n - mean * mean));
+        if (band == 0) return Double.NaN;
+
+        boolean below = series[0] < mean;
+        int crossings = 0;
+        int first = -1, last = -1;
+        for (int i = 1; i < n; i++) {
+            if (below && series[i] > mean + band) {
+                below = false;
+                if (first < 0) first = i;
+                last = i;
+                crossings++;
+            } else if (!below && series[i] < mean - band) {
+                below = true;
+            }
+        }
+        return crossings < 3 ? Double.NaN : (double) (last - first) / (crossings - 1);
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15
+                ? String.valueOf((long) value)
+                : String.format(Locale.ROOT, "%.2f", value);
+    }
+}
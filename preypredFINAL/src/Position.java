@@ -15,6 +15,11 @@ public class Position implements Serializable {
     public void setX(double x) { this.x = x; }
     public void setY(double y) { this.y = y; }
 
+    public void set(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
     public double distance(Position other) {
         double dx = this.x - other.x;
         double dy = this.y - other.y;
@@ -31,7 +36,10 @@ public class Position implements Serializable {
     }
 
     public Position randomMove(double speed, int envWidth, int envHeight) {
-        double angle = Math.random() * 2 * Math.PI;
+        return randomMove(speed, SimRandom.current().nextDouble() * 2 * Math.PI, envWidth, envHeight);
+    }
+
+    public Position randomMove(double speed, double angle, int envWidth, int envHeight) {
         double newX = x + Math.cos(angle) * speed;
         double newY = y + Math.sin(angle) * speed;
 
@@ -41,6 +49,33 @@ public class Position implements Serializable {
         return new Position(newX, newY);
     }
 
+    // In-place variants for the per-cycle hot path: same math, no new Position
+
+    public void moveTowards(double directionX, double directionY, double speed) {
+        double magnitude = Math.sqrt(directionX * directionX + directionY * directionY);
+        if (magnitude > 0) {
+            directionX /= magnitude;
+            directionY /= magnitude;
+        }
+        x += directionX * speed;
+        y += directionY * speed;
+    }
+
+    public void randomStep(double speed, double angle, int envWidth, int envHeight) {
+        x = Math.max(0, Math.min(envWidth, x + Math.cos(angle) * speed));
+        y = Math.max(0, Math.min(envHeight, y + Math.sin(angle) * speed));
+    }
+
+    public void translate(double dx, double dy) {
+        x += dx;
+        y += dy;
+    }
+
+    public void clamp(double minX, double minY, double maxX, double maxY) {
+        x = Math.max(minX, Math.min(maxX, x));
+        y = Math.max(minY, Math.min(maxY, y));
+    }
+
     @Override
     public String toString() {
         return String.format("(%.2f, %.2f)", x, y);
@@ -0,0 +1,195 @@
+import jade.core.AID;
+import java.util.List;
+
+public class PredatorLogic extends AgentLogic {
+    // Static constants that don't change
+    static final int ENERGY_LOSS = 1;
+    static final int VISION_RANGE = 110;
+    static final double CATCH_DISTANCE = 25.0;
+    static final int REPRO_COOLDOWN = 800;
+    static final int EATING_COOLDOWN = 100;
+    static final long STEP_DELAY = 45;
+    static final long EATING_DELAY = 120;
+
+    private int eatingCooldown = 0;
+    private int cycleCount = 0;
+    private boolean justAte = false;
+
+    public PredatorLogic(AID aid, Position position, SimConfig config) {
+        super(aid, position, config.getPredEnergyStart());
+    }
+
+    // Newborns and spawned predators start away from the walls
+    static Position spawnPosition(double x, double y, int width, int height) {
+        x = Math.max(50, Math.min(width - 50, x));
+        y = Math.max(50, Math.min(height - 50, y));
+        return new Position(x, y);
+    }
+
+    // x and y are expected to come from spawnPosition
+    public void reset(AID aid, double x, double y, SimConfig config) {
+        super.reset(aid, x, y, config.getPredEnergyStart());
+        eatingCooldown = 0;
+        cycleCount = 0;
+        justAte = false;
+    }
+
+    boolean hasJustEaten() { return justAte; }
+
+    void restoreHunger(int eatingCooldown, int cycleCount, boolean justAte) {
+        this.eatingCooldown = eatingCooldown;
+        this.cycleCount = cycleCount;
+        this.justAte = justAte;
+    }
+
+    public String getType() { return "PREDATOR"; }
+    public int getAge() { return cycleCount; }
+    public int getEatingCooldown() { return eatingCooldown; }
+
+    // Slow down after eating
+    public long getDelayMillis() { return justAte ? EATING_DELAY : STEP_DELAY; }
+
+    public boolean step(SimulationContext ctx) {
+        SimConfig config = ctx.getConfig();
+        cycleCount++;
+        justAte = false;
+
+        // Lose energy every 4 cycles
+        if (cycleCount % 4 == 0) {
+            energy -= ENERGY_LOSS;
+        }
+
+        if (reproductionCooldown > 0) reproductionCooldown--;
+        if (eatingCooldown > 0) eatingCooldown--;
+
+        // Death check
+        if (energy <= 0) {
+            ctx.log("ðŸ’€ " + aid.getLocalName() + " starved");
+            return false;
+        }
+
+        // PERCEPTION
+        List<AgentInfo> nearby = ctx.getNearbyAgents(
+                aid,
+                position,
+                VISION_RANGE
+        );
+
+        List<AgentInfo> preyList = nearby.stream()
+                .filter(info -> info.isPrey() && !info.getAID().equals(aid))
+                .toList();
+
+        List<AgentInfo> nearbyPredators = nearby.stream()
+                .filter(info -> info.isPredator() && !info.getAID().equals(aid))
+                .toList();
+
+        // if too crowded with other predators
+        if (nearbyPredators.size() > 4) {
+            // Too many predators here  disperse
+            disperseFromCrowd(ctx, nearbyPredators);
+        } else if (!preyList.isEmpty() && eatingCooldown <= 0) {
+            // Find closest prey
+            // Each Position is read once: the prey may publish a new one meanwhile
+            AgentInfo target = preyList.get(0);
+            Position targetPos = target.getPosition();
+            double minDist = position.distance(targetPos);
+
+            for (AgentInfo prey : preyList) {
+                Position preyPos = prey.getPosition();
+                double dist = position.distance(preyPos);
+                if (dist < minDist) {
+                    minDist = dist;
+                    target = prey;
+                    targetPos = preyPos;
+                }
+            }
+
+            // Try to catch - 1 prey at time
+            if (minDist <= CATCH_DISTANCE) {
+                // Another predator may have claimed it first
+                if (ctx.capturePrey(aid, target)) {
+                    onCapture(ctx);
+                }
+            } else {
+                // Chase
+                double dx = targetPos.getX() - position.getX();
+                double dy = targetPos.getY() - position.getY();
+                double dist = Math.sqrt(dx * dx + dy * dy);
+                if (dist > 0) {
+                    dx /= dist;
+                    dy /= dist;
+                }
+                position.translate(dx * config.getPredSpeed(),
+                        dy * config.getPredSpeed());
+            }
+        } else {
+
+            if (energy >= config.getPredReproThreshold() && reproductionCooldown <= 0) {
+                if (ctx.random() < 0.08) { // 8% chance - reproduce faster
+                    List<AgentInfo> partners = nearby.stream()
+                            .filter(AgentInfo::isPredator)
+                            .toList();
+                    if (!partners.isEmpty() && partners.size() < 3) {
+                        reproduce(ctx);
+                    }
+                }
+            }
+
+            // Always keep moving
+            double angle = ctx.random() * 2 * Math.PI;
+            position.translate(Math.cos(angle) * config.getPredSpeed() * 0.6,
+                    Math.sin(angle) * config.getPredSpeed() * 0.6);
+        }
+
+        // stayss strictly within bounds
+        position.clamp(30, 30, ctx.getWidth() - 30, ctx.getHeight() - 30);
+        return true;
+    }
+
+    // Called once the prey is ours; the double-buffered tick calls it at merge time
+    void onCapture(SimulationContext ctx) {
+        SimConfig config = ctx.getConfig();
+        // Use dynamic energy gain and max
+        energy = Math.min(config.getPredEnergyMax(),
+                energy + config.getPredEnergyGain());
+
+        ctx.log("ðŸ¦ " + aid.getLocalName() + " ate prey (E:" + energy + ")");
+        justAte = true;
+        eatingCooldown = EATING_COOLDOWN;
+    }
+
+    private void reproduce(SimulationContext ctx) {
+        // Use dynamic reproduction cost
+        SimConfig config = ctx.getConfig();
+        energy -= config.getPredReproCost();
+        reproductionCooldown = REPRO_COOLDOWN;
+
+        // Spawn NEAR parent
+        double x = position.getX() + (ctx.random() - 0.5) * 60;
+        double y = position.getY() + (ctx.random() - 0.5) * 60;
+        ctx.spawnPredator(x, y);
+        ctx.log("ðŸ¶ " + aid.getLocalName() + " had baby");
+    }
+
+    private void disperseFromCrowd(SimulationContext ctx, List<AgentInfo> nearbyPredators) {
+        // Calculate center of predator pack
+        double avgX = 0, avgY = 0;
+        for (AgentInfo other : nearbyPredators) {
+            Position p = other.getPosition();
+            avgX += p.getX();
+            avgY += p.getY();
+        }
+        avgX /= nearbyPredators.size();
+        avgY /= nearbyPredators.size();
+
+        // Move AWAY from pack center to spread out hunting territory
+        double disperseX = position.getX() - avgX;
+        double disperseY = position.getY() - avgY;
+
+        // Add randomness
+        disperseX += (ctx.random() - 0.5) * 150;
+        disperseY += (ctx.random() - 0.5) * 150;
+
+        position.translate(disperseX * 0.1, disperseY * 0.1);
+    }
+}
@@ -0,0 +1,169 @@
+import jade.core.AID;
+import java.util.List;
+
+public class PreyLogic extends AgentLogic {
+    // Tunables come from the run's SimConfig (ctx.getConfig()); these stay fixed
+    static final int AGE_MAX = 1500;
+    static final int VISION_RANGE = 100;
+    static final double FOOD_SEARCH_RADIUS = 120.0;
+    static final double FOOD_EAT_DISTANCE = 20.0;
+    static final int REPRO_COOLDOWN = 300;
+    static final long STEP_DELAY = 30;
+
+    private int age = 0;
+
+    public PreyLogic(AID aid, Position position, SimConfig config) {
+        super(aid, position, config.getPreyEnergyStart());
+    }
+
+    public void reset(AID aid, double x, double y, SimConfig config) {
+        super.reset(aid, x, y, config.getPreyEnergyStart());
+        age = 0;
+    }
+
+    void restoreAge(int age) { this.age = age; }
+
+    public String getType() { return "PREY"; }
+    public long getDelayMillis() { return STEP_DELAY; }
+    public int getAge() { return age; }
+
+    public boolean step(SimulationContext ctx) {
+        SimConfig config = ctx.getConfig();
+        // Age & Energy
+        age++;
+
+        // Lose energy every 3 cycles (slower)
+        if (age % 3 == 0) {
+            energy -= 1; // ENERGY_LOSS constant
+        }
+
+        reproductionCooldown--;
+
+        // Death conditions -
+        if (energy <= 0 || age > AGE_MAX) {
+            return false;
+        }
+
+        // Perception
+        List<AgentInfo> nearby = ctx.getNearbyAgents(aid, position, VISION_RANGE);
+        List<AgentInfo> predators = nearby.stream().filter(AgentInfo::isPredator).toList();
+        List<AgentInfo> nearbyPrey = nearby.stream().filter(AgentInfo::isPrey).toList();
+
+        // BEHAVIOR
+        if (!predators.isEmpty()) {
+            // FLEE from predators
+            flee(predators, config);
+        } else if (nearbyPrey.size() > 8) {
+            // TOO CROWDED
+            disperseFromCrowd(ctx, nearbyPrey);
+        } else {
+            // Look for food when safe
+            Food nearestFood = ctx.findNearestFood(position, FOOD_SEARCH_RADIUS);
+
+            if (nearestFood != null) {
+                // Move towards food
+                double dist = position.distance(nearestFood.getPosition());
+
+                if (dist <= FOOD_EAT_DISTANCE) {
+                    // EAT THE FOOD
+                    if (ctx.consumeFood(nearestFood)) {
+                        feed(ctx, nearestFood.getEnergyValue());
+                    }
+                } else {
+                    // Chase the food
+                    double dx = nearestFood.getPosition().getX() - position.getX();
+                    double dy = nearestFood.getPosition().getY() - position.getY();
+                    double foodSpeed = (energy < 50) ? config.getPreySpeed() * 1.5
+                            : config.getPreySpeed();
+                    position.moveTowards(dx, dy, foodSpeed);
+                }
+            } else {
+                // No food nearby
+                if (ctx.random() < 0.30) { // 30% chance - easier survival
+                    energy = Math.min(config.getPreyEnergyMax(), energy + 12);
+                }
+
+                // Random walk
+                position.randomStep(config.getPreySpeed() * 0.7,
+                        ctx.random() * 2 * Math.PI,
+                        ctx.getWidth(),
+                        ctx.getHeight());
+            }
+
+            // Try to reproduce
+            if (energy >= config.getPreyReproThreshold() && reproductionCooldown <= 0) {
+                if (ctx.random() < 0.20) {
+                    List<AgentInfo> partners = nearby.stream().filter(AgentInfo::isPrey).toList();
+                    if (!partners.isEmpty() && partners.size() < 8) {
+                        reproduce(ctx);
+                    }
+                }
+            }
+        }
+
+        // Keep in bounds
+        position.clamp(20, 20, ctx.getWidth() - 20, ctx.getHeight() - 20);
+        return true;
+    }
+
+    private void flee(List<AgentInfo> predators, SimConfig config) {
+        // Calculate average predator position
+        double predX = 0, predY = 0;
+        for (AgentInfo pred : predators) {
+            Position p = pred.getPosition();
+            predX += p.getX();
+            predY += p.getY();
+        }
+        predX /= predators.size();
+        predY /= predators.size();
+
+        // Direction away from predators
+        double fleeX = position.getX() - predX;
+        double fleeY = position.getY() - predY;
+
+        // Flee
+        double speed = config.getPreySpeed() * 1.5;
+        position.moveTowards(fleeX, fleeY, speed);
+    }
+
+    private void reproduce(SimulationContext ctx) {
+        // Use dynamic reproduction cost
+        SimConfig config = ctx.getConfig();
+        energy -= config.getPreyReproCost();
+        reproductionCooldown = REPRO_COOLDOWN;
+
+        double x = position.getX() + (ctx.random() - 0.5) * 40;
+        double y = position.getY() + (ctx.random() - 0.5) * 40;
+        ctx.spawnPrey(x, y);
+    }
+
+    private void disperseFromCrowd(SimulationContext ctx, List<AgentInfo> nearbyAgents) {
+        // Calculate center of the crowd
+        double avgX = 0, avgY = 0;
+        for (AgentInfo other : nearbyAgents) {
+            Position p = other.getPosition();
+            avgX += p.getX();
+            avgY += p.getY();
+        }
+        avgX /= nearbyAgents.size();
+        avgY /= nearbyAgents.size();
+
+        // Move AWAY from crowd center
+        double disperseX = position.getX() - avgX;
+        double disperseY = position.getY() - avgY;
+
+        // Add randomness
+        disperseX += (ctx.random() - 0.5) * 100;
+        disperseY += (ctx.random() - 0.5) * 100;
+
+        // Move the agent slowly away
+        position.translate(disperseX * 0.05, disperseY * 0.05);
+    }
+
+    // Called once the food is ours; the double-buffered tick calls it at merge time
+    void feed(SimulationContext ctx, int energyValue) {
+        SimConfig config = ctx.getConfig();
+        energy = Math.min(config.getPreyEnergyMax(), energy + energyValue);
+        ctx.log("ðŸƒ " + aid.getLocalName() + " ate food (E:" + energy + ")");
+    }
+}
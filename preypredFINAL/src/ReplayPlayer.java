@@ -0,0 +1,270 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Plays back a ReplayRecorder log. The file is memory-mapped one window at a
+// time (a mapping cannot exceed 2 GB, a long run's log can), and only the
+// frame lengths are read on open; a frame is decoded when playback reaches
+// it. seek() jumps to the keyframe at or before the target and decodes
+// forward from there, so any frame is at most keyframeEvery - 1 deltas away.
+// Not thread-safe: drive it from one thread (the Swing thread in ReplayViewer).
+public class ReplayPlayer implements AutoCloseable {
+    private static final long WINDOW = 1L << 28;  // bytes mapped at a time
+
+    private final FileChannel channel;
+    private final long size;
+    private final int width;
+    private final int height;
+    private final int keyframeEvery;
+    private final double scale;
+    private final long[] offsets;  // start of each frame's body
+    private final int[] lengths;
+    private final int frameCount;
+    // Populations of every frame, read once while indexing
+    private final int[] preyCounts;
+    private final int[] predatorCounts;
+
+    private final ReplayTable agents = new ReplayTable();
+    private final ReplayTable food = new ReplayTable();
+    private int current = -1;
+    private long tick;
+    private SimulationStats stats = new SimulationStats(0, 0, 0, 0, 0, 0, 0, 0);
+    // The mapped window and the file range it covers
+    private ByteBuffer in;
+    private long windowStart;
+    private long windowEnd;
+
+    public ReplayPlayer(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        size = channel.size();
+        if (size < ReplayRecorder.HEADER_SIZE) throw new IOException("Not a replay: " + file);
+        int header = map(0, ReplayRecorder.HEADER_SIZE);
+        in.position(header);
+        if (in.getInt() != ReplayRecorder.MAGIC || in.getInt() != ReplayRecorder.VERSION) {
+            throw new IOException("Not a replay: " + file);
+        }
+        width = in.getInt();
+        height = in.getInt();
+        keyframeEvery = in.getInt();
+        scale = in.getInt();
+
+        // Hop over the frames by their lengths, reading the populations at the
+        // start of each body on the way; a frame cut short by a crash is left out
+        long[] found = new long[1024];
+        int[] foundLengths = new int[1024];
+        int[] prey = new int[1024];
+        int[] predators = new int[1024];
+        int count = 0;
+        long at = ReplayRecorder.HEADER_SIZE;
+        while (at + 4 <= size) {
+            int index = map(at, 4);
+            int length = in.getInt(index);
+            if (length <= 0 || at + 4 + length > size) break;
+            if (count == found.length) {
+                found = Arrays.copyOf(found, 2 * count);
+                foundLengths = Arrays.copyOf(foundLengths, 2 * count);
+                prey = Arrays.copyOf(prey, 2 * count);
+                predators = Arrays.copyOf(predators, 2 * count);
+            }
+            int body = map(at + 4, length);
+            in.position(body);
+            in.get();  // flags
+            readVarLong();  // tick
+            prey[count] = (int) readVarLong();
+            predators[count] = (int) readVarLong();
+            found[count] = at + 4;
+            foundLengths[count++] = length;
+            at += 4 + length;
+        }
+        offsets = found;
+        lengths = foundLengths;
+        preyCounts = prey;
+        predatorCounts = predators;
+        frameCount = count;
+    }
+
+    // Makes [start, start + length) readable from in, remapping the window
+    // if needed, and returns where start is in it. Call it before reading in:
+    // it may replace the buffer.
+    private int map(long start, int length) throws IOException {
+        if (in == null || start < windowStart || start + length > windowEnd) {
+            long mapped = Math.min(size - start, Math.max(WINDOW, length));
+            in = channel.map(FileChannel.MapMode.READ_ONLY, start, mapped).order(ByteOrder.LITTLE_ENDIAN);
+            windowStart = start;
+            windowEnd = start + mapped;
+        }
+        return (int) (start - windowStart);
+    }
+
+    // Positions in at the body of a frame
+    private void enter(int frameIndex) {
+        try {
+            int body = map(offsets[frameIndex], lengths[frameIndex]);
+            in.position(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public int getFrameCount() { return frameCount; }
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getKeyframeEvery() { return keyframeEvery; }
+
+    // Index of the frame shown, -1 before the first
+    public int getCurrentFrame() { return current; }
+    public long getTick() { return tick; }
+    public SimulationStats getStats() { return stats; }
+
+    // Decodes the following frame; false at the end of the log
+    public boolean next() {
+        if (current + 1 >= frameCount) return false;
+        decode(current + 1);
+        return true;
+    }
+
+    public void seek(int target) {
+        if (frameCount == 0) return;
+        target = Math.max(0, Math.min(frameCount - 1, target));
+        int keyframe = target - target % keyframeEvery;
+        if (current < keyframe || current > target) {
+            decode(keyframe);
+        }
+        while (current < target) decode(current + 1);
+    }
+
+    // Populations of a frame, from the index built when the log was opened
+    public int getPreyCount(int frameIndex) { return preyCounts[frameIndex]; }
+    public int getPredatorCount(int frameIndex) { return predatorCounts[frameIndex]; }
+
+    // Counts of a frame, read from its header without touching the rest
+    public SimulationStats statsAt(int frameIndex) {
+        enter(frameIndex);
+        in.get();  // flags
+        readVarLong();  // tick
+        return readStats();
+    }
+
+    public long tickAt(int frameIndex) {
+        enter(frameIndex);
+        in.get();  // flags
+        return readVarLong();
+    }
+
+    private SimulationStats readStats() {
+        int prey = (int) readVarLong();
+        int predators = (int) readVarLong();
+        int foodCount = (int) readVarLong();
+        long births = readVarLong();
+        long deaths = readVarLong();
+        long captures = readVarLong();
+        long foodEaten = readVarLong();
+        long totalEnergy = unzigzag(readVarLong());
+        return new SimulationStats(prey, predators, foodCount, births, deaths, captures, foodEaten, totalEnergy);
+    }
+
+    private void decode(int frameIndex) {
+        enter(frameIndex);
+        boolean keyframe = (in.get() & ReplayRecorder.FLAG_KEYFRAME) != 0;
+        if (!keyframe && frameIndex != current + 1) {
+            throw new IllegalStateException("Frame " + frameIndex + " needs frame " + (frameIndex - 1));
+        }
+        tick = readVarLong();
+        stats = readStats();
+
+        // A keyframe restates everything, so its events are only skipped
+        int events = (int) readVarLong();
+        for (int e = 0; e < events; e++) {
+            byte tag = in.get();
+            long id = readVarLong();
+            if (tag == ReplayRecorder.BIRTH) {
+                byte species = in.get();
+                int x = (int) readVarLong();
+                int y = (int) readVarLong();
+                if (!keyframe) agents.add(id, species, x, y);
+            } else if (tag == ReplayRecorder.FOOD_SPAWN) {
+                int x = (int) readVarLong();
+                int y = (int) readVarLong();
+                if (!keyframe) food.add(id, (byte) 0, x, y);
+            } else if (keyframe) {
+                continue;
+            } else if (tag == ReplayRecorder.FOOD_EATEN) {
+                food.remove(id);
+            } else {
+                agents.remove(id);
+            }
+        }
+
+        if (keyframe) {
+            agents.clear();
+            int agentCount = (int) readVarLong();
+            for (int i = 0; i < agentCount; i++) {
+                long id = readVarLong();
+                byte species = in.get();
+                agents.add(id, species, (int) readVarLong(), (int) readVarLong());
+            }
+            food.clear();
+            int foodCount = (int) readVarLong();
+            for (int i = 0; i < foodCount; i++) {
+                long id = readVarLong();
+                food.add(id, (byte) 0, (int) readVarLong(), (int) readVarLong());
+            }
+        } else {
+            int moved = (int) readVarLong();
+            int i = -1;
+            for (int m = 0; m < moved; m++) {
+                i += (int) readVarLong() + 1;
+                int dx = (int) unzigzag(readVarLong());
+                int dy = (int) unzigzag(readVarLong());
+                agents.move(i, agents.x[i] + dx, agents.y[i] + dy);
+            }
+        }
+        current = frameIndex;
+    }
+
+    // The current frame, ready for a FrameView
+    public FrameSnapshot snapshot() {
+        int agentCount = agents.size();
+        double[] agentX = new double[agentCount];
+        double[] agentY = new double[agentCount];
+        byte[] agentSpecies = Arrays.copyOf(agents.species, agentCount);
+        for (int i = 0; i < agentCount; i++) {
+            agentX[i] = agents.x[i] / scale;
+            agentY[i] = agents.y[i] / scale;
+        }
+        int foodCount = food.size();
+        double[] foodX = new double[foodCount];
+        double[] foodY = new double[foodCount];
+        for (int i = 0; i < foodCount; i++) {
+            foodX[i] = food.x[i] / scale;
+            foodY[i] = food.y[i] / scale;
+        }
+        return new FrameSnapshot(agentX, agentY, agentSpecies, agentCount, foodX, foodY, foodCount, stats);
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
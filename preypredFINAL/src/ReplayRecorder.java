@@ -0,0 +1,309 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Records a run as a replay log: one frame per tick holding the counts, the
+// births, deaths, captures and food spawns and meals since the previous frame,
+// then either the moves of the agents that moved (small deltas against the
+// previous frame) or, every keyframeEvery frames, every position in full so a
+// player can seek. ReplayPlayer reads it back.
+//
+// Positions are stored in 1/SCALE pixels. Recorder and player keep the live
+// agents and food in the same order (appended at birth, the last one moved
+// into the hole at removal), so a move only needs the gap to the previous
+// moved agent in that order.
+//
+// Layout: a HEADER_SIZE-byte little-endian header (MAGIC, VERSION, width,
+// height, keyframeEvery, SCALE), then frames, each an int length followed by
+//   byte flags, varint tick, varints prey, predators, food, births, deaths,
+//   captures, foodEaten, zigzag totalEnergy,
+//   varint event count, events (tag byte + varints),
+//   keyframe: agent count, (id, species byte, x, y)..., food count, (id, x, y)...
+//   otherwise: moved count, (index gap, zigzag dx, zigzag dy)...
+public class ReplayRecorder implements EnvironmentListener, AutoCloseable {
+    static final int MAGIC = 0x4C565250;  // "LVRP"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 24;
+    static final int SCALE = 8;
+    static final int DEFAULT_KEYFRAME_EVERY = 100;
+
+    static final byte FLAG_KEYFRAME = 1;
+    static final byte BIRTH = 1;
+    static final byte DEATH = 2;
+    static final byte CAPTURE = 3;
+    static final byte FOOD_SPAWN = 4;
+    static final byte FOOD_EATEN = 5;
+
+    private static final int OUT_SIZE = 1 << 20;
+
+    private final Environment environment;
+    private final FileChannel channel;
+    private final int keyframeEvery;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(OUT_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private ByteBuffer frame = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+    // Events from the listener, five longs each (tag, id, species, x, y),
+    // filled by the threads changing the world and swapped out by frame()
+    private long[] events = new long[5 * 256];
+    private long[] spare = new long[5 * 256];
+    private int eventCount;
+
+    private final ReplayTable agents = new ReplayTable();
+    private final ReplayTable food = new ReplayTable();
+    private int[] sampledX = new int[256];
+    private int[] sampledY = new int[256];
+    private boolean[] seen = new boolean[256];
+    private long frames;
+    private long bytes = HEADER_SIZE;
+
+    // Starts listening to the environment; agents and food already there are
+    // in the first frame, which is always a keyframe
+    public ReplayRecorder(Path file, Environment environment, int keyframeEvery) throws IOException {
+        this.environment = environment;
+        this.keyframeEvery = Math.max(1, keyframeEvery);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(environment.getWidth()).putInt(environment.getHeight())
+                .putInt(this.keyframeEvery).putInt(SCALE).flip();
+        while (header.hasRemaining()) channel.write(header);
+
+        // Listen first, then seed: whatever arrives in between is in both
+        // and the duplicate is ignored
+        environment.setListener(this);
+        List<AgentInfo> present = new ArrayList<>(environment.getAllAgents().values());
+        present.sort(Comparator.comparingLong(AgentInfo::getSequence));
+        for (AgentInfo info : present) agentAdded(info);
+        List<Food> presentFood = environment.getAllFoods();
+        presentFood.sort(Comparator.comparingLong(Food::getId));
+        for (Food item : presentFood) foodAdded(item);
+    }
+
+    static int quantize(double coordinate) {
+        return (int) Math.round(coordinate * SCALE);
+    }
+
+    public void agentAdded(AgentInfo info) {
+        Position p = info.getPosition();
+        addEvent(BIRTH, info.getSequence(), info.isPrey() ? AgentStore.PREY : AgentStore.PREDATOR,
+                quantize(p.getX()), quantize(p.getY()));
+    }
+
+    public void agentRemoved(AgentInfo info, boolean captured) {
+        addEvent(captured ? CAPTURE : DEATH, info.getSequence(), 0, 0, 0);
+    }
+
+    public void foodAdded(Food item) {
+        addEvent(FOOD_SPAWN, item.getId(), 0, quantize(item.getPosition().getX()), quantize(item.getPosition().getY()));
+    }
+
+    public void foodRemoved(Food item) {
+        addEvent(FOOD_EATEN, item.getId(), 0, 0, 0);
+    }
+
+    private synchronized void addEvent(byte tag, long id, int species, int x, int y) {
+        if (5 * eventCount + 5 > events.length) events = Arrays.copyOf(events, events.length * 2);
+        int at = 5 * eventCount++;
+        events[at] = tag;
+        events[at + 1] = id;
+        events[at + 2] = species;
+        events[at + 3] = x;
+        events[at + 4] = y;
+    }
+
+    // Records the state at the end of a tick; called from the tick loop only
+    public void frame(long tick) throws IOException {
+        boolean keyframe = frames % keyframeEvery == 0;
+        SimulationStats stats = environment.getStats();
+        frame.clear();
+        frame.put(keyframe ? FLAG_KEYFRAME : 0);
+        putVarLong(tick);
+        putVarLong(stats.getPreyCount());
+        putVarLong(stats.getPredatorCount());
+        putVarLong(stats.getFoodCount());
+        putVarLong(stats.getBirths());
+        putVarLong(stats.getDeaths());
+        putVarLong(stats.getCaptures());
+        putVarLong(stats.getFoodEaten());
+        putVarLong(zigzag(stats.getTotalEnergy()));
+
+        // Events first: the player applies them before the moves
+        long[] drained;
+        int drainedCount;
+        synchronized (this) {
+            drained = events;
+            drainedCount = eventCount;
+            events = spare;
+            eventCount = 0;
+        }
+        // Apply to the table and keep only what changed it: a duplicate birth
+        // or the removal of an unknown id is dropped, so the player never sees it
+        int kept = 0;
+        for (int e = 0; e < drainedCount; e++) {
+            int at = 5 * e;
+            byte tag = (byte) drained[at];
+            long id = drained[at + 1];
+            boolean changed;
+            if (tag == BIRTH) {
+                changed = agents.add(id, (byte) drained[at + 2], (int) drained[at + 3], (int) drained[at + 4]);
+            } else if (tag == FOOD_SPAWN) {
+                changed = food.add(id, (byte) 0, (int) drained[at + 3], (int) drained[at + 4]);
+            } else if (tag == FOOD_EATEN) {
+                changed = food.remove(id);
+            } else {
+                changed = agents.remove(id);
+            }
+            if (changed) {
+                System.arraycopy(drained, at, drained, 5 * kept++, 5);
+            }
+        }
+        putVarLong(kept);
+        for (int e = 0; e < kept; e++) {
+            int at = 5 * e;
+            byte tag = (byte) drained[at];
+            ensure(1);
+            frame.put(tag);
+            putVarLong(drained[at + 1]);
+            if (tag == BIRTH) {
+                ensure(1);
+                frame.put((byte) drained[at + 2]);
+            }
+            if (tag == BIRTH || tag == FOOD_SPAWN) {
+                putVarLong(drained[at + 3]);
+                putVarLong(drained[at + 4]);
+            }
+        }
+        spare = drained;
+
+        // Sample every known agent; those born after the drain wait for the next frame
+        int n = agents.size();
+        if (sampledX.length < n) {
+            sampledX = new int[Math.max(n, 2 * sampledX.length)];
+            sampledY = new int[sampledX.length];
+            seen = new boolean[sampledX.length];
+        }
+        for (int i = 0; i < n; i++) {
+            sampledX[i] = agents.x[i];
+            sampledY[i] = agents.y[i];
+            seen[i] = false;
+        }
+        for (AgentInfo info : environment.getLiveAgents()) {
+            int i = agents.indexOf(info.getSequence());
+            if (i < 0) continue;
+            Position p = info.getPosition();
+            sampledX[i] = quantize(p.getX());
+            sampledY[i] = quantize(p.getY());
+            seen[i] = true;
+        }
+        // Gone from the world with no removal drained: either its event is on
+        // the way, or it raced ahead of the birth and was dropped. The death
+        // queued here settles both; whichever comes second is dropped.
+        for (int i = 0; i < n; i++) {
+            if (!seen[i]) addEvent(DEATH, agents.ids[i], 0, 0, 0);
+        }
+
+        if (keyframe) {
+            putTable(agents, true);
+            putTable(food, false);
+            for (int i = 0; i < n; i++) agents.move(i, sampledX[i], sampledY[i]);
+        } else {
+            int moved = 0;
+            for (int i = 0; i < n; i++) {
+                if (sampledX[i] != agents.x[i] || sampledY[i] != agents.y[i]) moved++;
+            }
+            putVarLong(moved);
+            int previous = -1;
+            for (int i = 0; i < n; i++) {
+                if (sampledX[i] == agents.x[i] && sampledY[i] == agents.y[i]) continue;
+                ensure(16);
+                putVarLong(i - previous - 1);
+                putVarLong(zigzag(sampledX[i] - agents.x[i]));
+                putVarLong(zigzag(sampledY[i] - agents.y[i]));
+                agents.move(i, sampledX[i], sampledY[i]);
+                previous = i;
+            }
+        }
+        writeFrame();
+        frames++;
+    }
+
+    private void putTable(ReplayTable table, boolean withSpecies) {
+        int n = table.size();
+        putVarLong(n);
+        for (int i = 0; i < n; i++) {
+            ensure(24);
+            putVarLong(table.ids[i]);
+            if (withSpecies) frame.put(table.species[i]);
+            putVarLong(withSpecies ? sampledX[i] : table.x[i]);
+            putVarLong(withSpecies ? sampledY[i] : table.y[i]);
+        }
+    }
+
+    private void writeFrame() throws IOException {
+        frame.flip();
+        int length = frame.remaining();
+        if (out.remaining() < 4 + length) flush();
+        if (out.remaining() < 4 + length) {
+            // Bigger than the output buffer: straight to the file
+            ByteBuffer prefix = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(length);
+            prefix.flip();
+            while (prefix.hasRemaining()) channel.write(prefix);
+            while (frame.hasRemaining()) channel.write(frame);
+        } else {
+            out.putInt(length).put(frame);
+        }
+        bytes += 4 + length;
+    }
+
+    private void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) channel.write(out);
+        out.clear();
+    }
+
+    private void ensure(int room) {
+        if (frame.remaining() >= room) return;
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(frame.capacity() * 2, frame.position() + room))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        frame.flip();
+        bigger.put(frame);
+        frame = bigger;
+    }
+
+    private void putVarLong(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            frame.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        frame.put((byte) value);
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    public long getFrameCount() { return frames; }
+
+    public long getByteCount() { return bytes; }
+
+    // Stops listening, writes what is buffered and closes the file
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) return;
+        environment.setListener(null);
+        try {
+            flush();
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Live agents or food of a replay in primitive columns. Recorder and player
+// both keep one and change it in the same order, so an index means the same
+// entity on both sides: add appends, remove moves the last entry into the hole.
+class ReplayTable {
+    long[] ids = new long[256];
+    byte[] species = new byte[256];
+    int[] x = new int[256];
+    int[] y = new int[256];
+    private int size;
+    private final Map<Long, Integer> index = new HashMap<>();
+
+    int size() { return size; }
+
+    int indexOf(long id) {
+        Integer i = index.get(id);
+        return i == null ? -1 : i;
+    }
+
+    // False if the id is already there
+    boolean add(long id, byte kind, int px, int py) {
+        if (index.containsKey(id)) return false;
+        if (size == ids.length) {
+            int capacity = 2 * size;
+            ids = Arrays.copyOf(ids, capacity);
+            species = Arrays.copyOf(species, capacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+        }
+        ids[size] = id;
+        species[size] = kind;
+        x[size] = px;
+        y[size] = py;
+        index.put(id, size++);
+        return true;
+    }
+
+    // False if the id is unknown
+    boolean remove(long id) {
+        Integer removed = index.remove(id);
+        if (removed == null) return false;
+        int i = removed;
+        int last = --size;
+        if (i != last) {
+            ids[i] = ids[last];
+            species[i] = species[last];
+            x[i] = x[last];
+            y[i] = y[last];
+            index.put(ids[i], i);
+        }
+        return true;
+    }
+
+    void move(int i, int px, int py) {
+        x[i] = px;
+        y[i] = py;
+    }
+
+    void clear() {
+        size = 0;
+        index.clear();
+    }
+}
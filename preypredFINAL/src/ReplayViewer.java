@@ -0,0 +1,180 @@
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+// Window playing back a replay log (see ReplayRecorder) with the simulation
+// view and both charts, at any speed, with a slider to seek. Nothing is
+// simulated: frames come from the log, and the theoretical curve is stepped
+// once per frame as the visualizer does once per tick.
+// Usage: java ReplayViewer run.replay [--speed TICKS_PER_SECOND]
+public class ReplayViewer extends JFrame {
+    private static final int REFRESH_MILLIS = 33;
+    private static final Integer[] SPEEDS = {1, 10, 30, 100, 300, 1_000, 3_000, 10_000, 100_000};
+
+    private final ReplayPlayer player;
+    private final FrameView view = new FrameView();
+    private final VisualizerAgent.PopulationChart chart = new VisualizerAgent.PopulationChart();
+    private final VisualizerAgent.TheoreticalChart theoChart = new VisualizerAgent.TheoreticalChart();
+    private final JSlider slider;
+    private final JButton playButton = new JButton("Pause");
+    private final JLabel status = new JLabel();
+    private final Timer timer;
+    private int speed;
+    private double owed;  // frames due but not yet shown
+    private long lastRefresh;
+    private boolean updatingSlider;
+    private boolean chartsStale;
+    private int chartedFrame = -1;  // last frame fed to the charts
+
+    public ReplayViewer(ReplayPlayer player, String name, int speed) {
+        this.player = player;
+        this.speed = speed;
+        timer = new Timer(REFRESH_MILLIS, e -> advance());
+        setTitle("Relecture - " + name);
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setLayout(new BorderLayout());
+
+        add(view, BorderLayout.CENTER);
+
+        JPanel charts = new JPanel(new GridLayout(1, 2, 15, 0));
+        charts.setBorder(new EmptyBorder(10, 20, 10, 20));
+        charts.setPreferredSize(new Dimension(900, 200));
+        charts.add(chart);
+        charts.add(theoChart);
+
+        slider = new JSlider(0, Math.max(0, player.getFrameCount() - 1), 0);
+        slider.addChangeListener(e -> {
+            if (updatingSlider) return;
+            // While dragging only the view follows; the charts catch up on release
+            boolean released = !slider.getValueIsAdjusting();
+            if (slider.getValue() != player.getCurrentFrame()) {
+                player.seek(slider.getValue());
+                chartsStale = true;
+                display();
+            }
+            if (released && chartsStale) {
+                chartsStale = false;
+                syncCharts();
+            }
+        });
+
+        JComboBox<Integer> speedBox = new JComboBox<>(SPEEDS);
+        speedBox.setEditable(true);
+        speedBox.setSelectedItem(speed);
+        speedBox.addActionListener(e -> {
+            Object selected = speedBox.getSelectedItem();
+            try {
+                this.speed = Math.max(1, Integer.parseInt(String.valueOf(selected)));
+            } catch (NumberFormatException ex) {
+                speedBox.setSelectedItem(this.speed);
+            }
+        });
+
+        playButton.addActionListener(e -> setPlaying(!timer.isRunning()));
+
+        JPanel controls = new JPanel(new BorderLayout(10, 0));
+        controls.setBorder(new EmptyBorder(0, 20, 10, 20));
+        JPanel left = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        left.add(playButton);
+        left.add(new JLabel("Vitesse (ticks/s)"));
+        left.add(speedBox);
+        controls.add(left, BorderLayout.WEST);
+        controls.add(slider, BorderLayout.CENTER);
+        controls.add(status, BorderLayout.EAST);
+
+        JPanel south = new JPanel(new BorderLayout());
+        south.add(charts, BorderLayout.CENTER);
+        south.add(controls, BorderLayout.SOUTH);
+        add(south, BorderLayout.SOUTH);
+
+        if (player.next()) {
+            syncCharts();
+            display();
+        }
+        pack();
+        setLocationRelativeTo(null);
+    }
+
+    private void setPlaying(boolean playing) {
+        if (playing) {
+            if (player.getCurrentFrame() >= player.getFrameCount() - 1) return;
+            owed = 0;
+            lastRefresh = System.nanoTime();
+            timer.start();
+        } else {
+            timer.stop();
+        }
+        playButton.setText(playing ? "Pause" : "Lecture");
+    }
+
+    // Decodes the frames due since the last refresh and shows the last one
+    private void advance() {
+        long now = System.nanoTime();
+        owed += speed * (now - lastRefresh) / 1e9;
+        lastRefresh = now;
+        boolean any = false;
+        while (owed >= 1) {
+            if (!player.next()) {
+                setPlaying(false);
+                break;
+            }
+            owed--;
+            any = true;
+        }
+        if (any) {
+            // After a drag the charts wait for the slider's release
+            if (!chartsStale) syncCharts();
+            display();
+        }
+    }
+
+    // The charts show the run up to the current frame. Going forward they
+    // only take the frames since the last sync; going back they start over.
+    // Either way the counts come from the player's index, not the log.
+    private void syncCharts() {
+        int target = player.getCurrentFrame();
+        if (target < chartedFrame) {
+            chart.clear();
+            theoChart.reset();
+            chartedFrame = -1;
+        }
+        while (chartedFrame < target) {
+            chartedFrame++;
+            chart.updateData(player.getPreyCount(chartedFrame), player.getPredatorCount(chartedFrame));
+            theoChart.nextStep();
+        }
+    }
+
+    private void display() {
+        view.publish(player.snapshot());
+        updatingSlider = true;
+        slider.setValue(player.getCurrentFrame());
+        updatingSlider = false;
+        SimulationStats stats = player.getStats();
+        status.setText("Tick " + player.getTick() + "  proies " + stats.getPreyCount()
+                + "  predateurs " + stats.getPredatorCount() + "  nourriture " + stats.getFoodCount());
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java ReplayViewer <fichier de relecture> [--speed TICKS_PAR_SECONDE]");
+            System.exit(1);
+        }
+        int speed = (int) (1000 / BatchSimulation.TICK_MILLIS);
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--speed")) speed = Math.max(1, Integer.parseInt(args[++i]));
+            else System.err.println("Option inconnue: " + args[i]);
+        }
+        ReplayPlayer player = new ReplayPlayer(Paths.get(args[0]));
+        System.out.println(player.getFrameCount() + " images, une image cle toutes les "
+                + player.getKeyframeEvery());
+        int initialSpeed = speed;
+        SwingUtilities.invokeLater(() -> {
+            ReplayViewer viewer = new ReplayViewer(player, args[0], initialSpeed);
+            viewer.setVisible(true);
+            viewer.setPlaying(true);
+        });
+    }
+}
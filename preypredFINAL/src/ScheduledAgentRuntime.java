@@ -0,0 +1,204 @@
+import jade.core.AID;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Runs prey and predators on a small shared ScheduledExecutorService instead
+// of one JADE agent, and so one platform thread, per animal. Each animal is a
+// task that steps its AgentLogic, publishes it to the Environment and then
+// reschedules itself after getDelayMillis(), where the JADE behaviour would
+// Thread.sleep. Agents still act asynchronously in real time, but a sleeping
+// agent costs a queue entry rather than a thread stack.
+//
+// Births are in-process too: a newborn reuses the task, context and logic
+// object of an animal that died, so a population boom does not go through
+// JADE's agent lifecycle (AMS registration, thread, reflection) per birth.
+//
+// Enabled with -Dsim.runtime=scheduled; -Dsim.runtime.threads sets the pool
+// size (one per core by default). -Dsim.births=pooled keeps the founders as
+// JADE agents but sends their offspring here.
+public class ScheduledAgentRuntime {
+    private static ScheduledAgentRuntime instance;
+
+    private final Environment environment;
+    private final ScheduledExecutorService executor;
+    private final AtomicLong nextSerial = new AtomicLong();
+    private final AtomicInteger liveCount = new AtomicInteger();
+    private final LongAdder steps = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+
+    // Slots of dead animals, waiting for a newborn of the same species
+    private final ConcurrentLinkedQueue<AgentTask> freePrey = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<AgentTask> freePredators = new ConcurrentLinkedQueue<>();
+
+    public ScheduledAgentRuntime(Environment environment, int threads) {
+        this.environment = environment;
+        this.executor = Executors.newScheduledThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, "sim-runtime-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    public static boolean isEnabled() {
+        return "scheduled".equals(System.getProperty("sim.runtime"));
+    }
+
+    // Whether births of JADE agents should land here as well
+    public static boolean isPooledBirths() {
+        return isEnabled() || "pooled".equals(System.getProperty("sim.births"));
+    }
+
+    public static synchronized ScheduledAgentRuntime getInstance() {
+        if (instance == null) {
+            int threads = Integer.getInteger("sim.runtime.threads", Runtime.getRuntime().availableProcessors());
+            instance = new ScheduledAgentRuntime(Environment.getInstance(), threads);
+        }
+        return instance;
+    }
+
+    public int getLiveCount() { return liveCount.get(); }
+    public long getStepCount() { return steps.sum(); }
+    public long getReusedCount() { return reused.sum(); }
+
+    public void spawnPrey(double x, double y) {
+        AID aid = new AID("Prey_" + nextSerial.incrementAndGet(), AID.ISGUID);
+        AgentTask task = freePrey.poll();
+        if (task != null) {
+            ((PreyLogic) task.logic).reset(aid, x, y, environment.getConfig());
+            reused.increment();
+        } else {
+            task = new AgentTask(new PreyLogic(aid, new Position(x, y), environment.getConfig()));
+        }
+        start(task);
+    }
+
+    public void spawnPredator(double x, double y) {
+        AID aid = new AID("Predator_" + nextSerial.incrementAndGet(), AID.ISGUID);
+        Position position = PredatorLogic.spawnPosition(x, y, environment.getWidth(), environment.getHeight());
+        AgentTask task = freePredators.poll();
+        if (task != null) {
+            ((PredatorLogic) task.logic).reset(aid, position.getX(), position.getY(), environment.getConfig());
+            reused.increment();
+        } else {
+            task = new AgentTask(new PredatorLogic(aid, position, environment.getConfig()));
+        }
+        start(task);
+    }
+
+    private void start(AgentTask task) {
+        AgentLogic logic = task.logic;
+        task.info = environment.registerAgent(logic.getAID(), logic.getType(), logic.getPosition(), logic.getEnergy());
+        liveCount.incrementAndGet();
+        executor.execute(task);
+    }
+
+    // Called by the task itself once it will not be scheduled again
+    private void release(AgentTask task) {
+        liveCount.decrementAndGet();
+        if (task.logic instanceof PreyLogic) {
+            freePrey.offer(task);
+        } else {
+            freePredators.offer(task);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // One animal. Never runs on two threads at once: the next run is only
+    // scheduled at the end of the current one.
+    private class AgentTask implements Runnable {
+        private final AgentLogic logic;
+        private final SimulationContext context = new RuntimeContext();
+        private AgentInfo info;  // this life's entry in the Environment
+
+        AgentTask(AgentLogic logic) {
+            this.logic = logic;
+        }
+
+        public void run() {
+            // Captured, or removed by the restart button
+            if (!info.isAlive()) {
+                release(this);
+                return;
+            }
+
+            boolean alive;
+            try {
+                alive = logic.step(context);
+            } catch (RuntimeException e) {
+                System.err.println("Agent " + logic.getAID().getLocalName() + " failed: " + e);
+                alive = false;
+            }
+            steps.increment();
+
+            if (!alive) {
+                environment.unregisterAgent(logic.getAID());
+                release(this);
+                return;
+            }
+
+            // Eaten while deciding: stop now rather than on the next run
+            if (!info.isAlive()) {
+                release(this);
+                return;
+            }
+
+            environment.updateAgent(logic);
+            executor.schedule(this, logic.getDelayMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private class RuntimeContext implements SimulationContext {
+        private final SimRandom random = SimRandom.newStream();
+
+        public int getWidth() { return environment.getWidth(); }
+        public int getHeight() { return environment.getHeight(); }
+        public SimConfig getConfig() { return environment.getConfig(); }
+
+        public List<AgentInfo> getNearbyAgents(AID requester, Position position, double radius) {
+            return environment.getNearbyAgents(requester, position, radius);
+        }
+
+        public Food findNearestFood(Position position, double radius) {
+            return environment.findNearestFood(position, radius);
+        }
+
+        public boolean consumeFood(Food food) {
+            return environment.consumeFood(food);
+        }
+
+        public boolean capturePrey(AID predator, AgentInfo prey) {
+            return environment.tryCapture(predator, prey.getAID());
+        }
+
+        // Offspring; founders and manual spawns come in through the outer methods uncounted
+        public void spawnPrey(double x, double y) {
+            environment.recordBirth();
+            ScheduledAgentRuntime.this.spawnPrey(x, y);
+        }
+
+        public void spawnPredator(double x, double y) {
+            environment.recordBirth();
+            ScheduledAgentRuntime.this.spawnPredator(x, y);
+        }
+
+        public double random() { return random.nextDouble(); }
+
+        public void log(String message) {
+            if (environment.isVerbose()) System.out.println(message);
+        }
+    }
+}
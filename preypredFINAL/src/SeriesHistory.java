@@ -0,0 +1,159 @@
+// History of one numeric series (a population per tick) kept in primitive
+// rings, at constant cost per sample however long the run:
+//   - tier 0 holds the last CAPACITY raw samples
+//   - tier k holds the last CAPACITY means of FACTOR^k samples
+//   - the last tier never drops anything: when full, it merges neighbouring
+//     buckets in pairs and doubles its bucket size, so it always spans the
+//     whole run
+// Min and max over the last `window` samples are kept with monotonic deques,
+// and over the whole run with two scalars, so a chart never rescans to scale.
+// Written by the simulation thread and read by the Swing thread, hence
+// the synchronized methods.
+public class SeriesHistory {
+    static final int CAPACITY = 512;
+    static final int FACTOR = 4;
+    static final int TIERS = 6;
+
+    private final int window;
+
+    // Tier rings, oldest bucket at start[k]
+    private final double[][] means = new double[TIERS][CAPACITY];
+    private final int[] start = new int[TIERS];
+    private final int[] size = new int[TIERS];
+    private final long[] bucketSize = new long[TIERS];
+
+    // Bucket being filled for each tier
+    private final double[] pendingSum = new double[TIERS];
+    private final long[] pendingCount = new long[TIERS];
+
+    // Monotonic deques over the window: sample numbers and values, in rings
+    private final long[] maxAt, minAt;
+    private final double[] maxValue, minValue;
+    private int maxHead, maxLength, minHead, minLength;
+
+    private long count;
+    private double min, max;
+
+    public SeriesHistory(int window) {
+        if (window < 1 || window > CAPACITY) {
+            throw new IllegalArgumentException("window must be between 1 and " + CAPACITY);
+        }
+        this.window = window;
+        maxAt = new long[window];
+        minAt = new long[window];
+        maxValue = new double[window];
+        minValue = new double[window];
+        clear();
+    }
+
+    public synchronized void clear() {
+        long bucket = 1;
+        for (int k = 0; k < TIERS; k++) {
+            start[k] = 0;
+            size[k] = 0;
+            bucketSize[k] = bucket;
+            pendingSum[k] = 0;
+            pendingCount[k] = 0;
+            bucket *= FACTOR;
+        }
+        maxHead = maxLength = minHead = minLength = 0;
+        count = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+
+    public synchronized void add(double value) {
+        long n = count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+
+        for (int k = 0; k < TIERS; k++) {
+            pendingSum[k] += value;
+            if (++pendingCount[k] == bucketSize[k]) {
+                append(k, pendingSum[k] / pendingCount[k]);
+                pendingSum[k] = 0;
+                pendingCount[k] = 0;
+            }
+        }
+
+        // Max deque: values strictly decreasing from head to tail. The head
+        // leaves the window first so the ring never holds more than `window`.
+        if (maxLength > 0 && maxAt[maxHead] <= n - window) { maxHead = (maxHead + 1) % window; maxLength--; }
+        while (maxLength > 0 && maxValue[(maxHead + maxLength - 1) % window] <= value) maxLength--;
+        int tail = (maxHead + maxLength++) % window;
+        maxAt[tail] = n;
+        maxValue[tail] = value;
+
+        // Min deque: values strictly increasing from head to tail
+        if (minLength > 0 && minAt[minHead] <= n - window) { minHead = (minHead + 1) % window; minLength--; }
+        while (minLength > 0 && minValue[(minHead + minLength - 1) % window] >= value) minLength--;
+        tail = (minHead + minLength++) % window;
+        minAt[tail] = n;
+        minValue[tail] = value;
+    }
+
+    private void append(int k, double mean) {
+        if (size[k] == CAPACITY) {
+            if (k == TIERS - 1) {
+                compactLastTier();
+            } else {
+                start[k] = (start[k] + 1) % CAPACITY;
+                size[k]--;
+            }
+        }
+        means[k][(start[k] + size[k]) % CAPACITY] = mean;
+        size[k]++;
+    }
+
+    // Buckets are all full and the same size, so a pair's mean is the plain average
+    private void compactLastTier() {
+        int k = TIERS - 1;
+        double[] ring = means[k];
+        for (int i = 0; i < CAPACITY / 2; i++) {
+            double a = ring[(start[k] + 2 * i) % CAPACITY];
+            double b = ring[(start[k] + 2 * i + 1) % CAPACITY];
+            ring[(start[k] + i) % CAPACITY] = (a + b) / 2;
+        }
+        size[k] = CAPACITY / 2;
+        bucketSize[k] *= 2;
+    }
+
+    public synchronized long getCount() { return count; }
+    public int getWindow() { return window; }
+
+    // Over the whole run (0 before the first sample)
+    public synchronized double getMin() { return count == 0 ? 0 : min; }
+    public synchronized double getMax() { return count == 0 ? 0 : max; }
+
+    // Over the last `window` samples
+    public synchronized double getWindowMin() { return minLength == 0 ? 0 : minValue[minHead]; }
+    public synchronized double getWindowMax() { return maxLength == 0 ? 0 : maxValue[maxHead]; }
+
+    // Finest tier that still holds every sample of the run
+    public synchronized int tierForWholeRun() {
+        for (int k = 0; k < TIERS - 1; k++) {
+            if (size[k] * bucketSize[k] + pendingCount[k] == count) return k;
+        }
+        return TIERS - 1;
+    }
+
+    public synchronized long getBucketSize(int tier) { return bucketSize[tier]; }
+
+    // Copies at most `limit` of the newest points of a tier into out, oldest
+    // first, the bucket still being filled included as the last point.
+    // Returns the number of points written; out needs CAPACITY + 1 slots.
+    public synchronized int copy(int tier, int limit, double[] out) {
+        boolean partial = pendingCount[tier] > 0;
+        int available = size[tier] + (partial ? 1 : 0);
+        int n = Math.min(limit, Math.min(available, out.length));
+        int fromRing = partial ? n - 1 : n;
+        int first = start[tier] + size[tier] - fromRing;
+        for (int i = 0; i < fromRing; i++) {
+            out[i] = means[tier][(first + i) % CAPACITY];
+        }
+        if (partial && n > 0) {
+            out[n - 1] = pendingSum[tier] / pendingCount[tier];
+        }
+        return n;
+    }
+}
@@ -0,0 +1,188 @@
+// The tunable parameters of one run, fixed once built. Each Environment and
+// BatchSimulation carries its own, so several configurations can run side by
+// side in one JVM (see ParameterSweep). VisualizerAgent.SimParams remains the
+// set of values the parameter panel edits; fromSimParams() takes a copy.
+public class SimConfig {
+    public static final SimConfig DEFAULTS = new Builder().build();
+
+    // Prey
+    private final int preyEnergyStart;
+    private final int preyEnergyMax;
+    private final int preyReproThreshold;
+    private final int preyReproCost;
+    private final double preySpeed;
+
+    // Predators
+    private final int predEnergyStart;
+    private final int predEnergyMax;
+    private final int predEnergyGain;
+    private final int predReproThreshold;
+    private final int predReproCost;
+    private final double predSpeed;
+
+    // Food
+    private final int foodEnergyValue;
+    private final int foodSpawnRate;
+    private final int foodPerSpawn;
+
+    private SimConfig(Builder b) {
+        preyEnergyStart = b.preyEnergyStart;
+        preyEnergyMax = b.preyEnergyMax;
+        preyReproThreshold = b.preyReproThreshold;
+        preyReproCost = b.preyReproCost;
+        preySpeed = b.preySpeed;
+        predEnergyStart = b.predEnergyStart;
+        predEnergyMax = b.predEnergyMax;
+        predEnergyGain = b.predEnergyGain;
+        predReproThreshold = b.predReproThreshold;
+        predReproCost = b.predReproCost;
+        predSpeed = b.predSpeed;
+        foodEnergyValue = b.foodEnergyValue;
+        foodSpawnRate = b.foodSpawnRate;
+        foodPerSpawn = b.foodPerSpawn;
+    }
+
+    // The values currently in VisualizerAgent.SimParams
+    public static SimConfig fromSimParams() {
+        return new Builder()
+                .preyEnergyStart(VisualizerAgent.SimParams.PREY_ENERGY_START)
+                .preyEnergyMax(VisualizerAgent.SimParams.PREY_ENERGY_MAX)
+                .preyReproThreshold(VisualizerAgent.SimParams.PREY_REPRO_THRESHOLD)
+                .preyReproCost(VisualizerAgent.SimParams.PREY_REPRO_COST)
+                .preySpeed(VisualizerAgent.SimParams.PREY_SPEED)
+                .predEnergyStart(VisualizerAgent.SimParams.PRED_ENERGY_START)
+                .predEnergyMax(VisualizerAgent.SimParams.PRED_ENERGY_MAX)
+                .predEnergyGain(VisualizerAgent.SimParams.PRED_ENERGY_GAIN)
+                .predReproThreshold(VisualizerAgent.SimParams.PRED_REPRO_THRESHOLD)
+                .predReproCost(VisualizerAgent.SimParams.PRED_REPRO_COST)
+                .predSpeed(VisualizerAgent.SimParams.PRED_SPEED)
+                .foodEnergyValue(VisualizerAgent.SimParams.FOOD_ENERGY_VALUE)
+                .foodSpawnRate(VisualizerAgent.SimParams.FOOD_SPAWN_RATE)
+                .foodPerSpawn(VisualizerAgent.SimParams.FOOD_PER_SPAWN)
+                .build();
+    }
+
+    public Builder toBuilder() {
+        return new Builder()
+                .preyEnergyStart(preyEnergyStart).preyEnergyMax(preyEnergyMax)
+                .preyReproThreshold(preyReproThreshold).preyReproCost(preyReproCost).preySpeed(preySpeed)
+                .predEnergyStart(predEnergyStart).predEnergyMax(predEnergyMax).predEnergyGain(predEnergyGain)
+                .predReproThreshold(predReproThreshold).predReproCost(predReproCost).predSpeed(predSpeed)
+                .foodEnergyValue(foodEnergyValue).foodSpawnRate(foodSpawnRate).foodPerSpawn(foodPerSpawn);
+    }
+
+    public int getPreyEnergyStart() { return preyEnergyStart; }
+    public int getPreyEnergyMax() { return preyEnergyMax; }
+    public int getPreyReproThreshold() { return preyReproThreshold; }
+    public int getPreyReproCost() { return preyReproCost; }
+    public double getPreySpeed() { return preySpeed; }
+
+    public int getPredEnergyStart() { return predEnergyStart; }
+    public int getPredEnergyMax() { return predEnergyMax; }
+    public int getPredEnergyGain() { return predEnergyGain; }
+    public int getPredReproThreshold() { return predReproThreshold; }
+    public int getPredReproCost() { return predReproCost; }
+    public double getPredSpeed() { return predSpeed; }
+
+    public int getFoodEnergyValue() { return foodEnergyValue; }
+    public int getFoodSpawnRate() { return foodSpawnRate; }
+    public int getFoodPerSpawn() { return foodPerSpawn; }
+
+    // Names accepted by get and Builder.set, in declaration order
+    public static final String[] PARAMETERS = {
+            "preyEnergyStart", "preyEnergyMax", "preyReproThreshold", "preyReproCost", "preySpeed",
+            "predEnergyStart", "predEnergyMax", "predEnergyGain", "predReproThreshold", "predReproCost", "predSpeed",
+            "foodEnergyValue", "foodSpawnRate", "foodPerSpawn"
+    };
+
+    public double get(String name) {
+        switch (name) {
+            case "preyEnergyStart": return preyEnergyStart;
+            case "preyEnergyMax": return preyEnergyMax;
+            case "preyReproThreshold": return preyReproThreshold;
+            case "preyReproCost": return preyReproCost;
+            case "preySpeed": return preySpeed;
+            case "predEnergyStart": return predEnergyStart;
+            case "predEnergyMax": return predEnergyMax;
+            case "predEnergyGain": return predEnergyGain;
+            case "predReproThreshold": return predReproThreshold;
+            case "predReproCost": return predReproCost;
+            case "predSpeed": return predSpeed;
+            case "foodEnergyValue": return foodEnergyValue;
+            case "foodSpawnRate": return foodSpawnRate;
+            case "foodPerSpawn": return foodPerSpawn;
+            default: throw new IllegalArgumentException("Unknown parameter: " + name);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("SimConfig[");
+        for (int i = 0; i < PARAMETERS.length; i++) {
+            if (i > 0) text.append(", ");
+            text.append(PARAMETERS[i]).append('=').append(get(PARAMETERS[i]));
+        }
+        return text.append(']').toString();
+    }
+
+    // Starts from the defaults of every run (DEFAULTS), which the parameter
+    // panel's VisualizerAgent.SimParams also starts from
+    public static class Builder {
+        private int preyEnergyStart = 85;
+        private int preyEnergyMax = 120;
+        private int preyReproThreshold = 75;
+        private int preyReproCost = 40;
+        private double preySpeed = 2.1;
+        private int predEnergyStart = 200;
+        private int predEnergyMax = 300;
+        private int predEnergyGain = 70;
+        private int predReproThreshold = 160;
+        private int predReproCost = 50;
+        private double predSpeed = 3.5;
+        private int foodEnergyValue = 35;
+        private int foodSpawnRate = 10;
+        private int foodPerSpawn = 2;
+
+        public Builder preyEnergyStart(int value) { preyEnergyStart = value; return this; }
+        public Builder preyEnergyMax(int value) { preyEnergyMax = value; return this; }
+        public Builder preyReproThreshold(int value) { preyReproThreshold = value; return this; }
+        public Builder preyReproCost(int value) { preyReproCost = value; return this; }
+        public Builder preySpeed(double value) { preySpeed = value; return this; }
+        public Builder predEnergyStart(int value) { predEnergyStart = value; return this; }
+        public Builder predEnergyMax(int value) { predEnergyMax = value; return this; }
+        public Builder predEnergyGain(int value) { predEnergyGain = value; return this; }
+        public Builder predReproThreshold(int value) { predReproThreshold = value; return this; }
+        public Builder predReproCost(int value) { predReproCost = value; return this; }
+        public Builder predSpeed(double value) { predSpeed = value; return this; }
+        public Builder foodEnergyValue(int value) { foodEnergyValue = value; return this; }
+        public Builder foodSpawnRate(int value) { foodSpawnRate = value; return this; }
+        public Builder foodPerSpawn(int value) { foodPerSpawn = value; return this; }
+
+        // By name, for sweeps; integer parameters are rounded
+        public Builder set(String name, double value) {
+            int rounded = (int) Math.round(value);
+            switch (name) {
+                case "preyEnergyStart": return preyEnergyStart(rounded);
+                case "preyEnergyMax": return preyEnergyMax(rounded);
+                case "preyReproThreshold": return preyReproThreshold(rounded);
+                case "preyReproCost": return preyReproCost(rounded);
+                case "preySpeed": return preySpeed(value);
+                case "predEnergyStart": return predEnergyStart(rounded);
+                case "predEnergyMax": return predEnergyMax(rounded);
+                case "predEnergyGain": return predEnergyGain(rounded);
+                case "predReproThreshold": return predReproThreshold(rounded);
+                case "predReproCost": return predReproCost(rounded);
+                case "predSpeed": return predSpeed(value);
+                case "foodEnergyValue": return foodEnergyValue(rounded);
+                case "foodSpawnRate": return foodSpawnRate(rounded);
+                case "foodPerSpawn": return foodPerSpawn(rounded);
+                default: throw new IllegalArgumentException("Unknown parameter: " + name);
+            }
+        }
+
+        public SimConfig build() {
+            if (foodSpawnRate < 1) throw new IllegalArgumentException("foodSpawnRate must be at least 1");
+            return new SimConfig(this);
+        }
+    }
+}
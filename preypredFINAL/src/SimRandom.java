@@ -0,0 +1,57 @@
+// Seedable, splittable random stream (SplitMix64, the generator behind
+// java.util.SplittableRandom: new SimRandom(s) yields the same numbers as
+// new SplittableRandom(s)). Its whole state is one long, so the batch engine
+// can save and restore it.
+//
+// Not thread-safe: give every agent or thread its own stream with split(),
+// newStream() or current(). All streams of a JVM derive from the run seed,
+// taken from -Dsim.seed when set.
+public class SimRandom {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private static final long RUN_SEED = Long.getLong("sim.seed", System.nanoTime());
+    private static final SimRandom ROOT = new SimRandom(RUN_SEED);
+    private static final ThreadLocal<SimRandom> CURRENT = ThreadLocal.withInitial(SimRandom::newStream);
+
+    private long state;
+
+    public SimRandom(long seed) {
+        this.state = seed;
+    }
+
+    public static long getRunSeed() { return RUN_SEED; }
+
+    // Fresh stream derived from the run seed
+    public static synchronized SimRandom newStream() {
+        return ROOT.split();
+    }
+
+    // Stream of the calling thread
+    public static SimRandom current() {
+        return CURRENT.get();
+    }
+
+    public SimRandom split() {
+        return new SimRandom(nextLong());
+    }
+
+    public long nextLong() {
+        long z = (state += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    // Uniform in [0, 1)
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    // Uniform in [0, bound)
+    public int nextInt(int bound) {
+        return (int) ((nextLong() >>> 33) * bound >>> 31);
+    }
+
+    public long getState() { return state; }
+    public void setState(long state) { this.state = state; }
+}
@@ -0,0 +1,21 @@
+import jade.core.AID;
+import java.util.List;
+
+// Everything the prey and predator rules need from the world. JADE agents use
+// AgentContext; the batch engine provides its own deterministic implementation.
+public interface SimulationContext {
+    int getWidth();
+    int getHeight();
+    SimConfig getConfig();
+
+    List<AgentInfo> getNearbyAgents(AID requester, Position position, double radius);
+    Food findNearestFood(Position position, double radius);
+    boolean consumeFood(Food food);
+    boolean capturePrey(AID predator, AgentInfo prey);
+
+    void spawnPrey(double x, double y);
+    void spawnPredator(double x, double y);
+
+    double random();
+    void log(String message);
+}
@@ -4,19 +4,78 @@ import jade.core.ProfileImpl;
 import jade.wrapper.AgentContainer;
 import jade.wrapper.AgentController;
 
+// Usage: java SimulationLauncher
+//        java SimulationLauncher --headless [--prey N] [--predators N] [--ticks N]
+//                                [--stats FILE] [--stats-every N] [--record FILE] [--replay FILE]
+//
+// --headless starts a HeadlessAgent instead of the visualizer: no window and
+// no AWT, statistics written to FILE (stats.csv by default) every N ticks of
+// the visualizer clock, and the process exits after --ticks (0 = until
+// extinction). --record also streams every tick to a binary file (see
+// StatsRecorder), and --replay writes a replay log for ReplayViewer.
 public class SimulationLauncher {
 
     public static void main(String[] args) {
+        boolean headless = false;
+        int prey = 15;
+        int predators = 8;
+        long ticks = 0;
+        String statsFile = "stats.csv";
+        int statsEvery = 10;
+        String recordFile = null;
+        String replayFile = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--headless": headless = true; break;
+                case "--prey": prey = Integer.parseInt(args[++i]); break;
+                case "--predators": predators = Integer.parseInt(args[++i]); break;
+                case "--ticks": ticks = Long.parseLong(args[++i]); break;
+                case "--stats": statsFile = args[++i]; break;
+                case "--stats-every": statsEvery = Integer.parseInt(args[++i]); break;
+                case "--record": recordFile = args[++i]; break;
+                case "--replay": replayFile = args[++i]; break;
+                default: System.err.println("Option inconnue: " + args[i]);
+            }
+        }
+
+        try {
+            tickMillisFromProperty();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return;
+        }
+
+        if (headless) {
+            // Keeps libraries from opening a display behind our back
+            System.setProperty("java.awt.headless", "true");
+        }
+
         try {
             Runtime runtime = Runtime.instance();
             Profile profile = new ProfileImpl();
             profile.setParameter(Profile.MAIN_HOST, "localhost");
-            profile.setParameter(Profile.GUI, "true");
+            profile.setParameter(Profile.GUI, headless ? "false" : "true");
 
             AgentContainer mainContainer = runtime.createMainContainer(profile);
 
+            if (headless) {
+                System.out.println("=== Simulation Proie-Predateur sans interface ===");
+                System.out.println("Proies: " + prey + ", Predateurs: " + predators
+                        + ", Ticks: " + (ticks > 0 ? String.valueOf(ticks) : "jusqu'a extinction"));
+                System.out.println("Graine aleatoire: " + SimRandom.getRunSeed() + " (-Dsim.seed=... pour la reutiliser)");
+                mainContainer.createNewAgent("Headless", "HeadlessAgent", new Object[]{
+                        prey, predators, ticks, statsFile, statsEvery, recordFile, replayFile
+                }).start();
+                return;
+            }
+
             System.out.println("=== Lancement de la Simulation Proie-Predateur ===");
             System.out.println("Configuration initiale via l'interface graphique");
+            if (ScheduledAgentRuntime.isEnabled()) {
+                System.out.println("Mode executeur partage: les animaux ne sont pas des agents JADE");
+            }
+            System.out.println("Graine aleatoire: " + SimRandom.getRunSeed() + " (-Dsim.seed=... pour la reutiliser)");
 
             // Only start the visualizer - NO initial agents
             // User will configure populations and press Start
@@ -34,4 +93,18 @@ public class SimulationLauncher {
             e.printStackTrace();
         }
     }
+
+    // Period of the JADE clock (food spawns, charts, statistics) from
+    // -Dsim.tickMillis, 100 ms by default. The animals step in real time, so
+    // the clock has to as well: an unpaced clock would spawn food and sample
+    // the charts as fast as the CPU allows. Unlimited speed is for the batch
+    // engine (BatchSimulationLauncher --tick-millis 0).
+    public static long tickMillisFromProperty() {
+        long tickMillis = Long.getLong("sim.tickMillis", 100);
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("sim.tickMillis doit etre positif (" + tickMillis
+                    + "): la vitesse illimitee est reservee a BatchSimulationLauncher");
+        }
+        return tickMillis;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+// Population counts and running totals of an Environment at one instant.
+// Taking one is a handful of counter reads (see Environment.getStats), so the
+// visualizer and the batch launcher take one per tick and read from it.
+public class SimulationStats {
+    private final int preyCount;
+    private final int predatorCount;
+    private final int foodCount;
+    private final long births;     // offspring only, not founders or manual spawns
+    private final long deaths;     // every removal, captures included
+    private final long captures;   // the part of deaths that predators ate
+    private final long foodEaten;
+    private final long totalEnergy; // summed over live agents
+
+    public SimulationStats(int preyCount, int predatorCount, int foodCount,
+                           long births, long deaths, long captures, long foodEaten, long totalEnergy) {
+        this.preyCount = preyCount;
+        this.predatorCount = predatorCount;
+        this.foodCount = foodCount;
+        this.births = births;
+        this.deaths = deaths;
+        this.captures = captures;
+        this.foodEaten = foodEaten;
+        this.totalEnergy = totalEnergy;
+    }
+
+    public int getPreyCount() { return preyCount; }
+    public int getPredatorCount() { return predatorCount; }
+    public int getFoodCount() { return foodCount; }
+    public long getBirths() { return births; }
+    public long getDeaths() { return deaths; }
+    public long getCaptures() { return captures; }
+    public long getFoodEaten() { return foodEaten; }
+    public long getTotalEnergy() { return totalEnergy; }
+
+    public double getMeanEnergy() {
+        int agents = preyCount + predatorCount;
+        return agents == 0 ? 0 : (double) totalEnergy / agents;
+    }
+
+    @Override
+    public String toString() {
+        return "SimulationStats{prey=" + preyCount + ", predators=" + predatorCount + ", food=" + foodCount
+                + ", births=" + births + ", deaths=" + deaths + ", captures=" + captures
+                + ", foodEaten=" + foodEaten + ", meanEnergy=" + String.format("%.1f", getMeanEnergy()) + "}";
+    }
+}
@@ -0,0 +1,231 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Uniform bucket grid over the environment. Every entry remembers the cell it
+// lives in and its slot inside that cell, so moves and removals are O(1).
+//
+// Each cell has its own read-write lock: queries only take read locks on the
+// cells they scan and never block each other, and writers only contend with
+// agents in the same region. moveTo swaps in the entry's new Position under the
+// cell's write lock, so a query never sees an entry outside its bucket.
+// Positions handed to moveTo must not be changed afterwards: readers outside
+// the grid hold on to them without any lock.
+public class SpatialGrid<T extends SpatialGrid.Entry> {
+
+    public interface Entry {
+        Position getPosition();
+        void setPosition(Position position);
+        int getCell();
+        void setCell(int cell);
+        int getSlot();
+        void setSlot(int slot);
+    }
+
+    private final double cellSize;
+    private final int cols;
+    private final int rows;
+    private final List<List<T>> cells;
+    private final ReentrantReadWriteLock[] locks;
+    private final AtomicInteger size = new AtomicInteger();
+
+    public SpatialGrid(int width, int height, double cellSize) {
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cells = new ArrayList<>(cols * rows);
+        this.locks = new ReentrantReadWriteLock[cols * rows];
+        for (int i = 0; i < cols * rows; i++) {
+            cells.add(new ArrayList<>());
+            locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    public double getCellSize() { return cellSize; }
+    public int size() { return size.get(); }
+
+    private int column(double x) {
+        return Math.max(0, Math.min(cols - 1, (int) Math.floor(x / cellSize)));
+    }
+
+    private int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / cellSize)));
+    }
+
+    public int cellIndex(double x, double y) {
+        return row(y) * cols + column(x);
+    }
+
+    public void insert(T entry) {
+        Position pos = entry.getPosition();
+        int cell = cellIndex(pos.getX(), pos.getY());
+        locks[cell].writeLock().lock();
+        try {
+            insertLocked(entry, cell);
+        } finally {
+            locks[cell].writeLock().unlock();
+        }
+        size.incrementAndGet();
+    }
+
+    public void remove(T entry) {
+        // The owner may be moving the entry to another cell at the same time,
+        // so re-check the cell once its lock is held
+        while (true) {
+            int cell = entry.getCell();
+            if (cell < 0) return;
+            locks[cell].writeLock().lock();
+            try {
+                if (entry.getCell() == cell) {
+                    removeLocked(entry, cell);
+                    size.decrementAndGet();
+                    return;
+                }
+            } finally {
+                locks[cell].writeLock().unlock();
+            }
+        }
+    }
+
+    // Sets the entry's position and re-buckets it if it crossed a cell border
+    public void moveTo(T entry, Position position) {
+        int target = cellIndex(position.getX(), position.getY());
+        while (true) {
+            int cell = entry.getCell();
+            if (cell < 0) {
+                // Not (or no longer) in the grid
+                entry.setPosition(position);
+                return;
+            }
+
+            // Lock in index order so two movers can never deadlock
+            int first = Math.min(cell, target);
+            int second = Math.max(cell, target);
+            locks[first].writeLock().lock();
+            if (second != first) locks[second].writeLock().lock();
+            try {
+                if (entry.getCell() == cell) {
+                    entry.setPosition(position);
+                    if (cell != target) {
+                        removeLocked(entry, cell);
+                        insertLocked(entry, target);
+                    }
+                    return;
+                }
+            } finally {
+                if (second != first) locks[second].writeLock().unlock();
+                locks[first].writeLock().unlock();
+            }
+        }
+    }
+
+    private void insertLocked(T entry, int cell) {
+        List<T> bucket = cells.get(cell);
+        entry.setSlot(bucket.size());
+        entry.setCell(cell);
+        bucket.add(entry);
+    }
+
+    private void removeLocked(T entry, int cell) {
+        // Swap-remove: the last entry of the bucket takes the freed slot
+        List<T> bucket = cells.get(cell);
+        int slot = entry.getSlot();
+        T last = bucket.remove(bucket.size() - 1);
+        if (last != entry) {
+            bucket.set(slot, last);
+            last.setSlot(slot);
+        }
+        entry.setCell(-1);
+        entry.setSlot(-1);
+    }
+
+    // Collects every entry within radius of (x, y), except the excluded one
+    public void query(double x, double y, double radius, T exclude, List<T> out) {
+        int minCol = column(x - radius), maxCol = column(x + radius);
+        int minRow = row(y - radius), maxRow = row(y + radius);
+        double radiusSq = radius * radius;
+
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minCol; c <= maxCol; c++) {
+                int cell = r * cols + c;
+                locks[cell].readLock().lock();
+                try {
+                    List<T> bucket = cells.get(cell);
+                    for (int i = 0; i < bucket.size(); i++) {
+                        T entry = bucket.get(i);
+                        if (entry == exclude) continue;
+                        Position p = entry.getPosition();
+                        double dx = p.getX() - x;
+                        double dy = p.getY() - y;
+                        if (dx * dx + dy * dy <= radiusSq) {
+                            out.add(entry);
+                        }
+                    }
+                } finally {
+                    locks[cell].readLock().unlock();
+                }
+            }
+        }
+    }
+
+    // Closest entry strictly within radius of (x, y), or null
+    public T nearest(double x, double y, double radius) {
+        int minCol = column(x - radius), maxCol = column(x + radius);
+        int minRow = row(y - radius), maxRow = row(y + radius);
+        T nearest = null;
+        double minDistSq = radius * radius;
+
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minCol; c <= maxCol; c++) {
+                int cell = r * cols + c;
+                locks[cell].readLock().lock();
+                try {
+                    List<T> bucket = cells.get(cell);
+                    for (int i = 0; i < bucket.size(); i++) {
+                        T entry = bucket.get(i);
+                        Position p = entry.getPosition();
+                        double dx = p.getX() - x;
+                        double dy = p.getY() - y;
+                        double distSq = dx * dx + dy * dy;
+                        if (distSq < minDistSq) {
+                            minDistSq = distSq;
+                            nearest = entry;
+                        }
+                    }
+                } finally {
+                    locks[cell].readLock().unlock();
+                }
+            }
+        }
+        return nearest;
+    }
+
+    public void addAllTo(List<? super T> out) {
+        for (int cell = 0; cell < cells.size(); cell++) {
+            locks[cell].readLock().lock();
+            try {
+                out.addAll(cells.get(cell));
+            } finally {
+                locks[cell].readLock().unlock();
+            }
+        }
+    }
+
+    public void clear() {
+        for (int cell = 0; cell < cells.size(); cell++) {
+            locks[cell].writeLock().lock();
+            try {
+                List<T> bucket = cells.get(cell);
+                for (T entry : bucket) {
+                    entry.setCell(-1);
+                    entry.setSlot(-1);
+                }
+                size.addAndGet(-bucket.size());
+                bucket.clear();
+            } finally {
+                locks[cell].writeLock().unlock();
+            }
+        }
+    }
+}
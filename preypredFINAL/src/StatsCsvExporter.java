@@ -0,0 +1,77 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Converts a StatsRecorder file to CSV, reading it in large chunks so a run of
+// millions of ticks converts in one pass.
+// Usage: java StatsCsvExporter stats.bin stats.csv
+public class StatsCsvExporter {
+    static final String HEADER = "tick,prey,predators,food,births,deaths,captures,food_eaten,mean_energy";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: java StatsCsvExporter <fichier binaire> <fichier csv>");
+            System.exit(1);
+        }
+        long rows = export(Paths.get(args[0]), Paths.get(args[1]));
+        System.out.println(rows + " lignes ecrites dans " + args[1]);
+    }
+
+    // Returns the number of records exported
+    public static long export(Path binary, Path csv) throws IOException {
+        try (FileChannel channel = FileChannel.open(binary, StandardOpenOption.READ);
+             BufferedWriter out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(StatsRecorder.RECORD_SIZE * StatsRecorder.RECORDS_PER_BUFFER)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, buffer, StatsRecorder.HEADER_SIZE);
+            if (buffer.getInt() != StatsRecorder.MAGIC || buffer.getInt() != StatsRecorder.VERSION
+                    || buffer.getInt() != StatsRecorder.RECORD_SIZE) {
+                throw new IOException("Not a statistics file: " + binary);
+            }
+            buffer.clear();
+
+            out.write(HEADER);
+            out.newLine();
+            long rows = 0;
+            StringBuilder line = new StringBuilder(96);
+            while (true) {
+                int read = channel.read(buffer);
+                buffer.flip();
+                while (buffer.remaining() >= StatsRecorder.RECORD_SIZE) {
+                    line.setLength(0);
+                    line.append(buffer.getLong()).append(',')
+                            .append(buffer.getInt()).append(',')
+                            .append(buffer.getInt()).append(',')
+                            .append(buffer.getInt()).append(',')
+                            .append(buffer.getLong()).append(',')
+                            .append(buffer.getLong()).append(',')
+                            .append(buffer.getLong()).append(',')
+                            .append(buffer.getLong()).append(',')
+                            .append(buffer.getDouble());
+                    out.append(line);
+                    out.newLine();
+                    rows++;
+                }
+                buffer.compact();
+                // Bytes left at the end belong to a record cut short by a crash
+                if (read < 0) break;
+            }
+            return rows;
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        buffer.limit(bytes);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) throw new IOException("Truncated header");
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,125 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// Streams one fixed-size binary record per tick to a file. The tick loop only
+// fills an in-memory buffer; full buffers go to a background thread that
+// writes them with a FileChannel and hands them back. When the writer falls
+// behind, record() allocates another buffer instead of waiting, so recording
+// never stalls the simulation. StatsCsvExporter turns a file into CSV.
+//
+// Layout, little-endian: a 16-byte header (MAGIC, VERSION, RECORD_SIZE, 0)
+// then RECORD_SIZE-byte records:
+//   long tick, int prey, int predators, int food, long births, long deaths,
+//   long captures, long foodEaten, double meanEnergy
+public class StatsRecorder implements AutoCloseable {
+    static final int MAGIC = 0x4C565453;  // "LVTS"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 60;
+    static final int RECORDS_PER_BUFFER = 4096;
+    private static final int POOLED_BUFFERS = 4;
+
+    private final FileChannel channel;
+    private final BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(POOLED_BUFFERS);
+    private final BlockingQueue<ByteBuffer> full = new LinkedBlockingQueue<>();
+    private final ByteBuffer endOfStream = ByteBuffer.allocate(0);
+    private final Thread writer;
+    private ByteBuffer current;
+    private long records;
+    private int extraBuffers;
+    private volatile IOException failure;
+
+    public StatsRecorder(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0).flip();
+        while (header.hasRemaining()) channel.write(header);
+
+        for (int i = 0; i < POOLED_BUFFERS; i++) free.add(newBuffer());
+        current = free.poll();
+
+        writer = new Thread(this::drain, "stats-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private static ByteBuffer newBuffer() {
+        return ByteBuffer.allocateDirect(RECORD_SIZE * RECORDS_PER_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Called from the tick loop only
+    public void record(long tick, SimulationStats stats) {
+        current.putLong(tick)
+                .putInt(stats.getPreyCount())
+                .putInt(stats.getPredatorCount())
+                .putInt(stats.getFoodCount())
+                .putLong(stats.getBirths())
+                .putLong(stats.getDeaths())
+                .putLong(stats.getCaptures())
+                .putLong(stats.getFoodEaten())
+                .putDouble(stats.getMeanEnergy());
+        records++;
+        if (!current.hasRemaining()) {
+            current.flip();
+            full.add(current);
+            current = free.poll();
+            if (current == null) {
+                current = newBuffer();
+                extraBuffers++;
+            }
+        }
+    }
+
+    public long getRecordCount() { return records; }
+
+    // Buffers allocated because the writer was behind; 0 means it kept up
+    public int getExtraBuffers() { return extraBuffers; }
+
+    private void drain() {
+        try {
+            while (true) {
+                ByteBuffer buffer = full.take();
+                if (buffer == endOfStream) return;
+                try {
+                    if (failure == null) {
+                        while (buffer.hasRemaining()) channel.write(buffer);
+                    }
+                } catch (IOException e) {
+                    failure = e;
+                }
+                buffer.clear();
+                free.offer(buffer);  // extra buffers beyond the pool are dropped here
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Writes what is left, waits for the writer and closes the file
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) return;
+        current.flip();
+        if (current.hasRemaining()) full.add(current);
+        full.add(endOfStream);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+        if (failure != null) throw failure;
+    }
+}
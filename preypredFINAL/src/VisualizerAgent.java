@@ -6,45 +6,55 @@ import javax.swing.*;
 import javax.swing.Timer;
 import javax.swing.border.*;
 import java.awt.*;
-import java.awt.geom.Ellipse2D;
 import java.awt.event.*;
 import java.util.*;
-import java.util.List;
 
 public class VisualizerAgent extends Agent {
-    private SimulationPanel panel;
+    private FrameView panel;
+    private FrameSampler sampler;
     private JFrame frame;
     private Environment environment;
     private PopulationChart chart;
     private TheoreticalChart theoChart;
     private ControlPanel controlPanel;
     private ParameterPanel parameterPanel;
-    private boolean isRunning = false;
+    private volatile boolean isRunning = false;
+    private int tickCount = 0;
 
-    // Shared simulation parameters
+    // Values edited by the parameter panel, starting from SimConfig.DEFAULTS;
+    // applyParameters hands a copy to the environment as its SimConfig
     public static class SimParams {
         // Prey parameters
-        public static int PREY_ENERGY_START = 85;
-        public static int PREY_ENERGY_MAX = 120;
-        public static int PREY_REPRO_THRESHOLD = 75;
-        public static int PREY_REPRO_COST = 40;
-        public static double PREY_SPEED = 2.1;
+        public static int PREY_ENERGY_START = SimConfig.DEFAULTS.getPreyEnergyStart();
+        public static int PREY_ENERGY_MAX = SimConfig.DEFAULTS.getPreyEnergyMax();
+        public static int PREY_REPRO_THRESHOLD = SimConfig.DEFAULTS.getPreyReproThreshold();
+        public static int PREY_REPRO_COST = SimConfig.DEFAULTS.getPreyReproCost();
+        public static double PREY_SPEED = SimConfig.DEFAULTS.getPreySpeed();
 
         // Predator parameters
-        public static int PRED_ENERGY_START = 200;
-        public static int PRED_ENERGY_MAX = 300;
-        public static int PRED_ENERGY_GAIN = 70;
-        public static int PRED_REPRO_THRESHOLD = 160;
-        public static int PRED_REPRO_COST = 50;
-        public static double PRED_SPEED = 3.5;
+        public static int PRED_ENERGY_START = SimConfig.DEFAULTS.getPredEnergyStart();
+        public static int PRED_ENERGY_MAX = SimConfig.DEFAULTS.getPredEnergyMax();
+        public static int PRED_ENERGY_GAIN = SimConfig.DEFAULTS.getPredEnergyGain();
+        public static int PRED_REPRO_THRESHOLD = SimConfig.DEFAULTS.getPredReproThreshold();
+        public static int PRED_REPRO_COST = SimConfig.DEFAULTS.getPredReproCost();
+        public static double PRED_SPEED = SimConfig.DEFAULTS.getPredSpeed();
 
         // Food parameters
-        public static int FOOD_ENERGY_VALUE = 35;
-        public static int FOOD_SPAWN_RATE = 10;
-        public static int FOOD_PER_SPAWN = 2;
+        public static int FOOD_ENERGY_VALUE = SimConfig.DEFAULTS.getFoodEnergyValue();
+        public static int FOOD_SPAWN_RATE = SimConfig.DEFAULTS.getFoodSpawnRate();
+        public static int FOOD_PER_SPAWN = SimConfig.DEFAULTS.getFoodPerSpawn();
     }
 
     protected void setup() {
+        long tickMillis;
+        try {
+            tickMillis = SimulationLauncher.tickMillisFromProperty();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            doDelete();
+            return;
+        }
+
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
         } catch (Exception e) {}
@@ -72,7 +82,7 @@ public class VisualizerAgent extends Agent {
             centerContainer.setBorder(new EmptyBorder(20, 20, 20, 20)); // Outer padding
 
             // Simulation panel with nice border
-            panel = new SimulationPanel();
+            panel = new FrameView();
             JPanel simWrapper = new JPanel(new BorderLayout());
             simWrapper.setBackground(new Color(240, 242, 245));
             // Card effect for simulation panel
@@ -128,46 +138,58 @@ public class VisualizerAgent extends Agent {
             frame.setSize(1350, 950);
             frame.setLocationRelativeTo(null);
             frame.setVisible(true);
+
+            // The screen samples the latest state at its own rate
+            sampler = new FrameSampler(environment::captureFrame, panel, snapshot -> {
+                SimulationStats stats = snapshot.getStats();
+                parameterPanel.updateLiveStats(stats.getPreyCount(), stats.getPredatorCount(), stats.getFoodCount());
+            });
+            sampler.start(FrameSampler.fpsFromProperty());
         });
 
-        addBehaviour(new TickerBehaviour(this, 100) {
-            private int tickCount = 0;
+        // Simulation clock, independent from the frame rate
+        addBehaviour(new TickerBehaviour(this, tickMillis) {
             protected void onTick() {
-                if (!isRunning) return;
-
-                tickCount++;
-                // environment.update(); // Removed: Logic is handled by individual agents
-
-                if (tickCount % SimParams.FOOD_SPAWN_RATE == 0) {
-                    for (int i = 0; i < SimParams.FOOD_PER_SPAWN; i++) {
-                        double x = 50 + Math.random() * (environment.getWidth() - 100);
-                        double y = 50 + Math.random() * (environment.getHeight() - 100);
-                        environment.spawnFood(new Position(x, y));
-                    }
-                }
-
-                if (panel != null) panel.repaint();
-                if (chart != null) chart.updateData(environment.getPreyCount(), environment.getPredatorCount());
-                if (theoChart != null) theoChart.nextStep();
-                if (parameterPanel != null) {
-                    SwingUtilities.invokeLater(() ->
-                            parameterPanel.updateLiveStats(environment.getPreyCount(), environment.getPredatorCount(), environment.getFoodCount())
-                    );
-                }
+                if (isRunning) simulationTick();
             }
         });
 
         System.out.println("Visualizer Agent started");
     }
 
+    private void simulationTick() {
+        tickCount++;
+        // environment.update(); // Removed: Logic is handled by individual agents
+
+        SimConfig config = environment.getConfig();
+        if (tickCount % config.getFoodSpawnRate() == 0) {
+            environment.spawnRandomFood(config.getFoodPerSpawn(), SimRandom.current());
+        }
+
+        // Charts follow simulation time; the world view is left to the sampler
+        SimulationStats stats = environment.getStats();
+        if (chart != null) chart.updateData(stats.getPreyCount(), stats.getPredatorCount());
+        if (theoChart != null) theoChart.nextStep();
+    }
+
     private void startSimulation() { isRunning = true; System.out.println("Simulation started"); }
     private void stopSimulation() { isRunning = false; System.out.println("Simulation paused"); }
 
     private void spawnAgent(String className, String prefix) {
+        if (ScheduledAgentRuntime.isEnabled()) {
+            double x = SimRandom.current().nextDouble() * environment.getWidth();
+            double y = SimRandom.current().nextDouble() * environment.getHeight();
+            if (className.equals("PreyAgent")) {
+                ScheduledAgentRuntime.getInstance().spawnPrey(x, y);
+            } else {
+                ScheduledAgentRuntime.getInstance().spawnPredator(x, y);
+            }
+            return;
+        }
         try {
             Object[] args = new Object[]{
-                    Math.random() * environment.getWidth(),
-                    Math.random() * environment.getHeight()
+                    SimRandom.current().nextDouble() * environment.getWidth(),
+                    SimRandom.current().nextDouble() * environment.getHeight()
             };
             String name = prefix + System.nanoTime();
             getContainerController().createNewAgent(name, className, args).start();
@@ -391,6 +413,7 @@ public class VisualizerAgent extends Agent {
                 SimParams.FOOD_ENERGY_VALUE = (Integer) foodSpinners.get("Valeur energ.").getValue();
                 SimParams.FOOD_SPAWN_RATE = (Integer) foodSpinners.get("Taux spawn").getValue();
                 SimParams.FOOD_PER_SPAWN = (Integer) foodSpinners.get("Qte par spawn").getValue();
+                environment.setConfig(SimConfig.fromSimParams());
 
                 JOptionPane.showMessageDialog(this, "Parametres appliques avec succes!", "Succes", JOptionPane.INFORMATION_MESSAGE);
                 System.out.println("Parameters updated successfully");
@@ -466,17 +489,14 @@ public class VisualizerAgent extends Agent {
 
             restartBtn.addActionListener(e -> {
                 stopSimulation();
-                for (jade.core.AID aid : new java.util.HashSet<>(environment.getAllAgents().keySet())) {
-                    environment.unregisterAgent(aid);
-                }
-                environment.getAllFoods().clear();
+                environment.reset();
                 startBtn.setEnabled(true);
                 pauseBtn.setEnabled(false);
                 preySpinner.setEnabled(true);
                 predatorSpinner.setEnabled(true);
                 statusLabel.setText("PRAŠT");
                 statusLabel.setForeground(new Color(108, 117, 125));
-                if (panel != null) panel.repaint();
+                if (panel != null) panel.publish(environment.captureFrame());
                 if (chart != null) chart.updateData(0, 0);
                 if (theoChart != null) theoChart.reset();
                 // Reset live stats to 0 via update
@@ -504,8 +524,8 @@ public class VisualizerAgent extends Agent {
             spawnFoodBtn.setForeground(Color.BLACK);
             spawnFoodBtn.addActionListener(e -> {
                 for(int i=0; i<5; i++) {
-                    double x = 50 + Math.random() * (environment.getWidth() - 100);
-                    double y = 50 + Math.random() * (environment.getHeight() - 100);
+                    double x = 50 + SimRandom.current().nextDouble() * (environment.getWidth() - 100);
+                    double y = 50 + SimRandom.current().nextDouble() * (environment.getHeight() - 100);
                     environment.spawnFood(new Position(x, y));
                 }
             });
@@ -600,85 +620,38 @@ public class VisualizerAgent extends Agent {
         }
     }
 
-    // ==========================================
-    // SIMULATION PANEL
-    // ==========================================
-    class SimulationPanel extends JPanel {
-        public SimulationPanel() {
-            setPreferredSize(new Dimension(900, 650));
-            setBackground(Color.WHITE);
-            setBorder(null); // Border handled by wrapper
-        }
-
-        @Override
-        protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
-            Graphics2D g2d = (Graphics2D) g;
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-            Map<jade.core.AID, AgentInfo> agents = environment.getAllAgents();
-            List<Food> foods = environment.getAllFoods();
-
-            // Draw food with glow effect
-            for (Food food : foods) {
-                Position pos = food.getPosition();
-                // Outer glow
-                g2d.setColor(new Color(255, 220, 0, 50));
-                g2d.fill(new Ellipse2D.Double(pos.getX() - 8, pos.getY() - 8, 16, 16));
-                // Inner circle
-                g2d.setColor(new Color(255, 193, 7));
-                g2d.fill(new Ellipse2D.Double(pos.getX() - 5, pos.getY() - 5, 10, 10));
-            }
-
-            // Draw agents with shadows
-            for (AgentInfo info : agents.values()) {
-                Position pos = info.getPosition();
-                if (info.isPrey()) {
-                    // Shadow
-                    g2d.setColor(new Color(0, 0, 0, 30));
-                    g2d.fill(new Ellipse2D.Double(pos.getX() - 5, pos.getY() - 4, 10, 10));
-                    // Agent
-                    g2d.setColor(new Color(40, 167, 69));
-                    g2d.fill(new Ellipse2D.Double(pos.getX() - 6, pos.getY() - 6, 12, 12));
-                    // Highlight
-                    g2d.setColor(new Color(255, 255, 255, 100));
-                    g2d.fill(new Ellipse2D.Double(pos.getX() - 4, pos.getY() - 5, 4, 4));
-                } else {
-                    // Shadow
-                    g2d.setColor(new Color(0, 0, 0, 40));
-                    g2d.fill(new Ellipse2D.Double(pos.getX() - 7, pos.getY() - 6, 14, 14));
-                    // Agent
-                    g2d.setColor(new Color(220, 53, 69));
-                    g2d.fill(new Ellipse2D.Double(pos.getX() - 8, pos.getY() - 8, 16, 16));
-                    // Highlight
-                    g2d.setColor(new Color(255, 255, 255, 120));
-                    g2d.fill(new Ellipse2D.Double(pos.getX() - 5, pos.getY() - 6, 5, 5));
-                }
-            }
-        }
-    }
-
     // ==========================================
     // POPULATION CHART
     // ==========================================
-    class PopulationChart extends JPanel {
-        private List<Integer> preyHistory = new ArrayList<>();
-        private List<Integer> predatorHistory = new ArrayList<>();
+    static class PopulationChart extends JPanel {
         private static final int MAX_POINTS = 200;
+        private final SeriesHistory preyHistory = new SeriesHistory(MAX_POINTS);
+        private final SeriesHistory predatorHistory = new SeriesHistory(MAX_POINTS);
+        private final double[] preyPoints = new double[SeriesHistory.CAPACITY + 1];
+        private final double[] predatorPoints = new double[SeriesHistory.CAPACITY + 1];
+        // Whole run by default; a click switches to the last MAX_POINTS ticks
+        private boolean wholeRun = true;
 
         public PopulationChart() {
             setPreferredSize(new Dimension(900, 200));
             setBackground(Color.WHITE);
-
+            addMouseListener(new MouseAdapter() {
+                public void mouseClicked(MouseEvent e) {
+                    wholeRun = !wholeRun;
+                    repaint();
+                }
+            });
         }
 
         public void updateData(int preyCount, int predatorCount) {
             preyHistory.add(preyCount);
             predatorHistory.add(predatorCount);
-            if (preyHistory.size() > MAX_POINTS) {
-                preyHistory.remove(0);
-                predatorHistory.remove(0);
-            }
+            repaint();
+        }
+
+        public void clear() {
+            preyHistory.clear();
+            predatorHistory.clear();
             repaint();
         }
 
@@ -688,7 +661,7 @@ public class VisualizerAgent extends Agent {
             Graphics2D g2d = (Graphics2D) g;
             g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-            if (preyHistory.isEmpty()) {
+            if (preyHistory.getCount() == 0) {
                 g2d.setColor(new Color(150, 150, 150));
                 g2d.setFont(new Font("Segoe UI", Font.ITALIC, 14));
                 g2d.drawString("En attente de donnees...", getWidth() / 2 - 80, getHeight() / 2);
@@ -699,12 +672,17 @@ public class VisualizerAgent extends Agent {
             int height = getHeight();
             int padding = 40;
 
-            int maxPop = Math.max(
-                    preyHistory.stream().max(Integer::compareTo).orElse(1),
-                    predatorHistory.stream().max(Integer::compareTo).orElse(1)
-            );
+            int maxPop = (int) (wholeRun
+                    ? Math.max(preyHistory.getMax(), predatorHistory.getMax())
+                    : Math.max(preyHistory.getWindowMax(), predatorHistory.getWindowMax()));
             maxPop = Math.max(maxPop, 10);
 
+            // Same tier for both curves so their points line up
+            int tier = wholeRun ? Math.max(preyHistory.tierForWholeRun(), predatorHistory.tierForWholeRun()) : 0;
+            int limit = wholeRun ? Integer.MAX_VALUE : MAX_POINTS;
+            int preyCount = preyHistory.copy(tier, limit, preyPoints);
+            int predatorCount = predatorHistory.copy(tier, limit, predatorPoints);
+
             // Clean Grid
             g2d.setColor(new Color(245, 245, 245));
             for (int i = 0; i <= 5; i++) {
@@ -723,18 +701,20 @@ public class VisualizerAgent extends Agent {
             g2d.setFont(new Font("Segoe UI", Font.PLAIN, 10));
             g2d.drawString("0", padding - 15, height - padding + 5);
             g2d.drawString(String.valueOf(maxPop), padding - 25, padding + 5);
+            g2d.drawString(wholeRun ? "Toute la simulation (" + preyHistory.getCount() + " ticks)"
+                    : "Derniers " + MAX_POINTS + " ticks", padding + 10, padding - 10);
 
-            double xScale = (double) (width - 2 * padding) / MAX_POINTS;
+            double xScale = (double) (width - 2 * padding) / (wholeRun ? Math.max(1, preyCount - 1) : MAX_POINTS);
             double yScale = (double) (height - 2 * padding) / maxPop;
 
             // Draw prey line (Green)
             g2d.setColor(new Color(40, 167, 69));
             g2d.setStroke(new BasicStroke(2f)); // Thinner, sharper line
-            drawCurve(g2d, preyHistory, xScale, yScale, padding, height);
+            drawCurve(g2d, preyPoints, preyCount, xScale, yScale, padding, height);
 
             // Draw predator line (Red)
             g2d.setColor(new Color(220, 53, 69));
-            drawCurve(g2d, predatorHistory, xScale, yScale, padding, height);
+            drawCurve(g2d, predatorPoints, predatorCount, xScale, yScale, padding, height);
 
             // Legend
             int legendX = width - 140;
@@ -752,12 +732,12 @@ public class VisualizerAgent extends Agent {
             g2d.drawString(text, x + 15, y + 9);
         }
 
-        private void drawCurve(Graphics2D g2d, List<Integer> history, double xScale, double yScale, int padding, int height) {
-            for (int i = 1; i < history.size(); i++) {
+        private void drawCurve(Graphics2D g2d, double[] points, int count, double xScale, double yScale, int padding, int height) {
+            for (int i = 1; i < count; i++) {
                 int x1 = padding + (int) ((i - 1) * xScale);
-                int y1 = height - padding - (int) (history.get(i - 1) * yScale);
+                int y1 = height - padding - (int) (points[i - 1] * yScale);
                 int x2 = padding + (int) (i * xScale);
-                int y2 = height - padding - (int) (history.get(i) * yScale);
+                int y2 = height - padding - (int) (points[i] * yScale);
                 g2d.drawLine(x1, y1, x2, y2);
             }
         }
@@ -766,10 +746,14 @@ public class VisualizerAgent extends Agent {
     // ==========================================
     // THEORETICAL (LOTKA-VOLTERRA)
     // ==========================================
-    class TheoreticalChart extends JPanel {
-        private List<Double> preyHistory = new ArrayList<>();
-        private List<Double> predatorHistory = new ArrayList<>();
+    static class TheoreticalChart extends JPanel {
         private static final int MAX_POINTS = 200;
+        private final SeriesHistory preyHistory = new SeriesHistory(MAX_POINTS);
+        private final SeriesHistory predatorHistory = new SeriesHistory(MAX_POINTS);
+        private final double[] preyPoints = new double[SeriesHistory.CAPACITY + 1];
+        private final double[] predatorPoints = new double[SeriesHistory.CAPACITY + 1];
+        // Whole run by default; a click switches to the last MAX_POINTS steps
+        private boolean wholeRun = true;
 
         // Math Parameters
         private double alpha = 0.1; // Prey birth
@@ -777,48 +761,42 @@ public class VisualizerAgent extends Agent {
         private double gamma = 0.1; // Predator death
         private double delta = 0.01; // Predator reproduction
 
-        // Current state
-        private double x = 20.0; // Initial Prey
-        private double y = 5.0;  // Initial Predator
+        // Current state: {prey, predators}
+        private final double[] state = {20.0, 5.0};
         private double dt = 0.1; // Time step
+        private final LotkaVolterraSolver solver = new LotkaVolterraSolver(alpha, beta, gamma, delta,
+                LotkaVolterraSolver.methodFromProperty());
 
         public TheoreticalChart() {
             setBackground(Color.WHITE);
             setBorder(new LineBorder(new Color(220, 220, 220), 1, true));
             // Initialize with starting values
-            preyHistory.add(x);
-            predatorHistory.add(y);
+            preyHistory.add(state[0]);
+            predatorHistory.add(state[1]);
+            addMouseListener(new MouseAdapter() {
+                public void mouseClicked(MouseEvent e) {
+                    wholeRun = !wholeRun;
+                    repaint();
+                }
+            });
         }
 
         public void nextStep() {
-            // Euler Method for Lotka-Volterra
-            double dx = (alpha * x - beta * x * y) * dt;
-            double dy = (delta * x * y - gamma * y) * dt;
-
-            x += dx;
-            y += dy;
-
-            // Prevent negative populations
-            x = Math.max(0, x);
-            y = Math.max(0, y);
+            // RK4 by default, see LotkaVolterraSolver
+            solver.advance(state, dt);
 
-            preyHistory.add(x);
-            predatorHistory.add(y);
-
-            if (preyHistory.size() > MAX_POINTS) {
-                preyHistory.remove(0);
-                predatorHistory.remove(0);
-            }
+            preyHistory.add(state[0]);
+            predatorHistory.add(state[1]);
             repaint();
         }
 
         public void reset() {
             preyHistory.clear();
             predatorHistory.clear();
-            x = 20.0;
-            y = 5.0;
-            preyHistory.add(x);
-            predatorHistory.add(y);
+            state[0] = 20.0;
+            state[1] = 5.0;
+            preyHistory.add(state[0]);
+            predatorHistory.add(state[1]);
             repaint();
         }
 
@@ -837,32 +815,37 @@ public class VisualizerAgent extends Agent {
             g2d.setFont(new Font("Segoe UI", Font.BOLD, 12));
             g2d.drawString("Modele LV", padding, 20);
 
-            // Find max for scaling
-            double maxPop = 10.0;
-            for(double v : preyHistory) maxPop = Math.max(maxPop, v);
-            for(double v : predatorHistory) maxPop = Math.max(maxPop, v);
+            // Max for scaling, kept by the histories
+            double maxPop = Math.max(10.0, wholeRun
+                    ? Math.max(preyHistory.getMax(), predatorHistory.getMax())
+                    : Math.max(preyHistory.getWindowMax(), predatorHistory.getWindowMax()));
+
+            int tier = wholeRun ? Math.max(preyHistory.tierForWholeRun(), predatorHistory.tierForWholeRun()) : 0;
+            int limit = wholeRun ? Integer.MAX_VALUE : MAX_POINTS;
+            int preyCount = preyHistory.copy(tier, limit, preyPoints);
+            int predatorCount = predatorHistory.copy(tier, limit, predatorPoints);
 
             // Draw axes
             g2d.setColor(new Color(230, 230, 230));
             g2d.drawLine(padding, height - padding, width - padding, height - padding); // X axis
             g2d.drawLine(padding, padding, padding, height - padding); // Y axis
 
-            double xScale = (double) (width - 2 * padding) / MAX_POINTS;
+            double xScale = (double) (width - 2 * padding) / (wholeRun ? Math.max(1, preyCount - 1) : MAX_POINTS);
             double yScale = (double) (height - 2 * padding) / maxPop;
 
             // Draw Curves
-            drawCurve(g2d, preyHistory, xScale, yScale, padding, height, new Color(34, 139, 34)); // Green
-            drawCurve(g2d, predatorHistory, xScale, yScale, padding, height, new Color(220, 53, 69)); // Red
+            drawCurve(g2d, preyPoints, preyCount, xScale, yScale, padding, height, new Color(34, 139, 34)); // Green
+            drawCurve(g2d, predatorPoints, predatorCount, xScale, yScale, padding, height, new Color(220, 53, 69)); // Red
         }
 
-        private void drawCurve(Graphics2D g2d, List<Double> history, double xScale, double yScale, int padding, int height, Color c) {
+        private void drawCurve(Graphics2D g2d, double[] points, int count, double xScale, double yScale, int padding, int height, Color c) {
             g2d.setColor(c);
             g2d.setStroke(new BasicStroke(1.5f));
-            for (int i = 1; i < history.size(); i++) {
+            for (int i = 1; i < count; i++) {
                 int x1 = padding + (int) ((i - 1) * xScale);
-                int y1 = height - padding - (int) (history.get(i - 1) * yScale);
+                int y1 = height - padding - (int) (points[i - 1] * yScale);
                 int x2 = padding + (int) (i * xScale);
-                int y2 = height - padding - (int) (history.get(i) * yScale);
+                int y2 = height - padding - (int) (points[i] * yScale);
                 g2d.drawLine(x1, y1, x2, y2);
             }
         }
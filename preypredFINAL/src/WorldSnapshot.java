@@ -0,0 +1,123 @@
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+// Frozen copy of every agent, taken at a tick boundary and bucketed by grid
+// cell. In double-buffered mode agents perceive this copy while they write
+// their moves into the live AgentInfos, so nobody sees another agent halfway
+// through its update and the tick result does not depend on thread timing.
+//
+// The copies are plain AgentInfo objects reused from one rebuild to the next:
+// they are only valid until the snapshot is rebuilt.
+public class WorldSnapshot {
+    private final double cellSize;
+    private final int cols;
+    private final int rows;
+
+    private AgentInfo[] views = new AgentInfo[0];    // frozen copies
+    private AgentInfo[] sources = new AgentInfo[0];  // live agent of each copy
+    private AgentInfo[] sorted = new AgentInfo[0];   // copies ordered by cell
+    private AgentInfo[] sortedSources = new AgentInfo[0];
+    private int[] cellOf = new int[0];
+    private final int[] cellStart;
+    private int size = 0;
+
+    public WorldSnapshot(int width, int height, double cellSize) {
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cellStart = new int[cols * rows + 1];
+    }
+
+    public int size() { return size; }
+
+    private int column(double x) {
+        return Math.max(0, Math.min(cols - 1, (int) Math.floor(x / cellSize)));
+    }
+
+    private int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / cellSize)));
+    }
+
+    public void rebuild(Collection<AgentInfo> live) {
+        int capacity = live.size();
+        if (views.length < capacity) {
+            int grown = Math.max(capacity, views.length * 2);
+            views = Arrays.copyOf(views, grown);
+            sources = Arrays.copyOf(sources, grown);
+            sorted = new AgentInfo[grown];
+            sortedSources = new AgentInfo[grown];
+            cellOf = new int[grown];
+        }
+
+        // Copy, counting agents per cell as we go
+        Arrays.fill(cellStart, 0);
+        int n = 0;
+        for (AgentInfo info : live) {
+            if (n == views.length) break;  // registered while we were copying
+            if (views[n] == null) {
+                views[n] = new AgentInfo(null, null, new Position(0, 0), 0);
+            }
+            views[n].copyFrom(info);
+            sources[n] = info;
+            Position pos = views[n].getPosition();
+            cellOf[n] = row(pos.getY()) * cols + column(pos.getX());
+            cellStart[cellOf[n] + 1]++;
+            n++;
+        }
+        size = n;
+
+        // Counting sort by cell, stable in copy order
+        for (int c = 0; c < cols * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int[] next = Arrays.copyOf(cellStart, cellStart.length);
+        for (int i = 0; i < n; i++) {
+            int slot = next[cellOf[i]]++;
+            sorted[slot] = views[i];
+            sortedSources[slot] = sources[i];
+        }
+        Arrays.fill(sorted, n, sorted.length, null);
+        Arrays.fill(sortedSources, n, sortedSources.length, null);
+
+        // Registration order within each cell, so the snapshot does not depend
+        // on the iteration order of the live map (which a restored checkpoint
+        // cannot reproduce). Cells hold a handful of agents: insertion sort.
+        for (int c = 0; c < cols * rows; c++) {
+            for (int i = cellStart[c] + 1; i < cellStart[c + 1]; i++) {
+                AgentInfo view = sorted[i];
+                AgentInfo source = sortedSources[i];
+                int j = i - 1;
+                while (j >= cellStart[c] && sorted[j].getSequence() > view.getSequence()) {
+                    sorted[j + 1] = sorted[j];
+                    sortedSources[j + 1] = sortedSources[j];
+                    j--;
+                }
+                sorted[j + 1] = view;
+                sortedSources[j + 1] = source;
+            }
+        }
+    }
+
+    // Collects the frozen copies within radius of (x, y), skipping the copy of exclude
+    public void query(double x, double y, double radius, AgentInfo exclude, List<AgentInfo> out) {
+        int minCol = column(x - radius), maxCol = column(x + radius);
+        int minRow = row(y - radius), maxRow = row(y + radius);
+        double radiusSq = radius * radius;
+
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minCol; c <= maxCol; c++) {
+                int cell = r * cols + c;
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                    if (exclude != null && sortedSources[i] == exclude) continue;
+                    AgentInfo view = sorted[i];
+                    double dx = view.getPosition().getX() - x;
+                    double dy = view.getPosition().getY() - y;
+                    if (dx * dx + dy * dy <= radiusSq) {
+                        out.add(view);
+                    }
+                }
+            }
+        }
+    }
+}